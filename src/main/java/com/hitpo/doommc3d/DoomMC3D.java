@@ -39,6 +39,8 @@ public class DoomMC3D implements ModInitializer {
         // ModSounds.init();  // Disabled - using WAD sounds directly via DoomSfxPlayer
         DoomNetworking.init();
         DoomScheduler.register();
+        com.hitpo.doommc3d.worldgen.DoomBuildJob.register();
+        com.hitpo.doommc3d.worldgen.DoomChunkWarmup.register();
         DoomLiftSystem.register();
         DoomWalkTriggerSystem.register();
         DoomCombatHooks.register();
@@ -64,6 +66,7 @@ public class DoomMC3D implements ModInitializer {
         } catch (Exception e) {
             e.printStackTrace();
         }
+        com.hitpo.doommc3d.wad.WadCatalog.refreshAsync();
         // Ensure a sample external corpse config exists for easier tuning by users
         try {
             java.nio.file.Path cfgDir = java.nio.file.Path.of("config");
@@ -1,8 +1,8 @@
 package com.hitpo.doommc3d.client.audio;
 
 import com.hitpo.doommc3d.wad.WadDirectoryEntry;
-import com.hitpo.doommc3d.wad.WadFile;
-import com.hitpo.doommc3d.wad.WadLoader;
+import com.hitpo.doommc3d.wad.WadLumpSource;
+import com.hitpo.doommc3d.wad.WadRepository;
 import java.io.ByteArrayInputStream;
 import java.nio.ByteBuffer;
 import java.util.Locale;
@@ -22,7 +22,7 @@ public final class DoomMusicPlayer {
         if (lump == null) {
             // No direct mapping found; we'll try to pick a reasonable fallback from the IWAD.
             try {
-                WadFile wad = WadLoader.loadFirstIwad();
+                WadLumpSource wad = WadRepository.getOrLoad(null);
                 // Prefer any lump that starts with D_ (classic Doom music naming).
                 for (WadDirectoryEntry entry : wad.getDirectory()) {
                     String name = entry.getName();
@@ -38,14 +38,14 @@ public final class DoomMusicPlayer {
             return;
         }
         try {
-            WadFile wad = WadLoader.loadFirstIwad();
+            WadLumpSource wad = WadRepository.getOrLoad(null);
             playLump(wad, lump);
         } catch (Exception e) {
             com.hitpo.doommc3d.util.DebugLogger.debug("DoomMusicPlayer.error", () -> "[DoomMC3D] Failed to start music for map " + mapName + ": " + e.getMessage());
         }
     }
 
-    public static void playLump(WadFile wad, String lumpName) throws Exception {
+    public static void playLump(WadLumpSource wad, String lumpName) throws Exception {
         String key = lumpName.toUpperCase(Locale.ROOT);
         if (key.equals(currentLump)) {
             return;
@@ -89,13 +89,8 @@ public final class DoomMusicPlayer {
         return sequencer;
     }
 
-    private static WadDirectoryEntry find(WadFile wad, String name) {
-        for (WadDirectoryEntry entry : wad.getDirectory()) {
-            if (name.equals(entry.getName())) {
-                return entry;
-            }
-        }
-        return null;
+    private static WadDirectoryEntry find(WadLumpSource wad, String name) {
+        return wad.findLump(name);
     }
 }
 
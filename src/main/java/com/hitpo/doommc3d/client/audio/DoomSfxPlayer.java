@@ -1,7 +1,7 @@
 package com.hitpo.doommc3d.client.audio;
 
 import com.hitpo.doommc3d.wad.WadDirectoryEntry;
-import com.hitpo.doommc3d.wad.WadFile;
+import com.hitpo.doommc3d.wad.WadLumpSource;
 import com.hitpo.doommc3d.wad.WadRepository;
 import java.io.IOException;
 import java.nio.ByteBuffer;
@@ -192,7 +192,7 @@ public final class DoomSfxPlayer {
     }
 
     private static ByteBuffer readLumpBytes(String lumpName) {
-        WadFile wad;
+        WadLumpSource wad;
         try {
             wad = WadRepository.getOrLoad(null);
         } catch (IOException e) {
@@ -202,13 +202,7 @@ public final class DoomSfxPlayer {
 
         String target = normalize(lumpName);
         com.hitpo.doommc3d.util.DebugLogger.debug("DoomSfxPlayer.search", () -> "[DoomSfxPlayer] Searching for lump: " + target);
-        WadDirectoryEntry entry = null;
-        for (WadDirectoryEntry e : wad.getDirectory()) {
-            if (normalize(e.getName()).equals(target)) {
-                entry = e;
-                break;
-            }
-        }
+        WadDirectoryEntry entry = wad.findLump(target);
         if (entry == null) {
             com.hitpo.doommc3d.util.DebugLogger.debug("DoomSfxPlayer.search", () -> "[DoomSfxPlayer] ERROR: Lump not found: " + target);
             com.hitpo.doommc3d.util.DebugLogger.debug("DoomSfxPlayer.search", () -> {
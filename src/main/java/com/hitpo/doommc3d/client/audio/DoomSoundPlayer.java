@@ -1,8 +1,8 @@
 package com.hitpo.doommc3d.client.audio;
 
 import com.hitpo.doommc3d.wad.WadDirectoryEntry;
-import com.hitpo.doommc3d.wad.WadFile;
-import com.hitpo.doommc3d.wad.WadLoader;
+import com.hitpo.doommc3d.wad.WadLumpSource;
+import com.hitpo.doommc3d.wad.WadRepository;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.sound.SoundCategory;
 import net.minecraft.util.math.Vec3d;
@@ -87,7 +87,7 @@ public final class DoomSoundPlayer {
      */
     private static byte[] loadSoundFromWad(String lumpName) {
         try {
-            WadFile wad = WadLoader.loadFirstIwad();
+            WadLumpSource wad = WadRepository.getOrLoad(null);
             WadDirectoryEntry entry = findLump(wad, lumpName);
             
             if (entry == null) {
@@ -222,13 +222,8 @@ public final class DoomSoundPlayer {
     /**
      * Find a lump in the WAD directory.
      */
-    private static WadDirectoryEntry findLump(WadFile wad, String name) {
-        for (WadDirectoryEntry entry : wad.getDirectory()) {
-            if (name.equals(entry.getName())) {
-                return entry;
-            }
-        }
-        return null;
+    private static WadDirectoryEntry findLump(WadLumpSource wad, String name) {
+        return wad.findLump(name);
     }
 
     /**
@@ -2,7 +2,7 @@ package com.hitpo.doommc3d.client.doomgfx;
 
 import com.hitpo.doommc3d.DoomMC3D;
 import com.hitpo.doommc3d.wad.WadDirectoryEntry;
-import com.hitpo.doommc3d.wad.WadFile;
+import com.hitpo.doommc3d.wad.WadLumpSource;
 import java.nio.ByteOrder;
 import java.nio.ByteBuffer;
 import java.util.HashMap;
@@ -20,7 +20,7 @@ public final class DoomWadSpriteCache {
     private final Map<String, DoomWadSprite> sprites = new HashMap<>();
     private volatile int[] paletteArgb;
 
-    public DoomWadSprite getOrLoad(WadFile wad, String lumpName) {
+    public DoomWadSprite getOrLoad(WadLumpSource wad, String lumpName) {
         String key = lumpName.toUpperCase(Locale.ROOT);
         DoomWadSprite cached = sprites.get(key);
         if (cached != null) {
@@ -62,7 +62,7 @@ public final class DoomWadSpriteCache {
         }
     }
 
-    private int[] getPaletteArgb(WadFile wad) {
+    private int[] getPaletteArgb(WadLumpSource wad) {
         int[] local = paletteArgb;
         if (local != null) {
             return local;
@@ -99,13 +99,8 @@ public final class DoomWadSpriteCache {
         }
     }
 
-    private WadDirectoryEntry find(WadFile wad, String name) {
-        for (WadDirectoryEntry entry : wad.getDirectory()) {
-            if (name.equals(entry.getName())) {
-                return entry;
-            }
-        }
-        return null;
+    private WadDirectoryEntry find(WadLumpSource wad, String name) {
+        return wad.findLump(name);
     }
 
     public record DoomWadSprite(Identifier texture, int width, int height, int leftOffset, int topOffset) {
@@ -4,7 +4,7 @@ import com.hitpo.doommc3d.client.doomgfx.DoomWadSpriteCache;
 import com.hitpo.doommc3d.client.weapon.DoomWeaponClientAnim;
 import com.hitpo.doommc3d.item.ModItems;
 import com.hitpo.doommc3d.player.DoomAmmo;
-import com.hitpo.doommc3d.wad.WadFile;
+import com.hitpo.doommc3d.wad.WadLumpSource;
 import com.hitpo.doommc3d.wad.WadRepository;
 import net.fabricmc.fabric.api.client.rendering.v1.HudRenderCallback;
 import net.minecraft.client.MinecraftClient;
@@ -20,7 +20,7 @@ import net.minecraft.util.Identifier;
 public final class DoomHudRenderer implements HudRenderCallback {
     private static final int HUD_HEIGHT = 40;
     private static final DoomWadSpriteCache SPRITES = new DoomWadSpriteCache();
-    private static volatile WadFile cachedWad;
+    private static volatile WadLumpSource cachedWad;
     // Pickup display state (client-side)
     private static volatile String pickupText = null;
     private static volatile int pickupColor = 0xFFFFFFFF;
@@ -199,7 +199,7 @@ public final class DoomHudRenderer implements HudRenderCallback {
 
         String lump = DoomWeaponClientAnim.getWeaponLump(client);
         String flash = DoomWeaponClientAnim.getFlashLump(client);
-        WadFile wad = getWad();
+        WadLumpSource wad = getWad();
         DoomWadSpriteCache.DoomWadSprite sprite = (wad != null && lump != null) ? SPRITES.getOrLoad(wad, lump) : null;
         if (sprite == null) {
             return;
@@ -223,8 +223,8 @@ public final class DoomHudRenderer implements HudRenderCallback {
         dc.getMatrices().popMatrix();
     }
 
-    private static WadFile getWad() {
-        WadFile wad = cachedWad;
+    private static WadLumpSource getWad() {
+        WadLumpSource wad = cachedWad;
         if (wad != null) {
             return wad;
         }
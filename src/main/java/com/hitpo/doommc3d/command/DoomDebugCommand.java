@@ -1,5 +1,6 @@
 package com.hitpo.doommc3d.command;
 
+import com.hitpo.doommc3d.wad.WadRepository;
 import com.mojang.brigadier.context.CommandContext;
 import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
 import net.minecraft.server.command.CommandManager;
@@ -15,9 +16,21 @@ public final class DoomDebugCommand {
             dispatcher.register(CommandManager.literal("doommc3d_list_triggers")
                 .executes(ctx -> run(ctx))
             );
+            dispatcher.register(CommandManager.literal("doommc3d_wad_cache")
+                .executes(ctx -> showWadCache(ctx))
+            );
         });
     }
 
+    private static int showWadCache(CommandContext<ServerCommandSource> ctx) {
+        WadRepository.CacheStats stats = WadRepository.getStats();
+        ctx.getSource().sendFeedback(() -> Text.literal("WAD cache: " + stats.entries() + " files, "
+            + (stats.heapBytes() / 1024) + " KiB heap, " + (stats.mappedBytes() / 1024) + " KiB mapped, "
+            + stats.hits() + " hits, " + stats.misses() + " misses, " + stats.evictions() + " evictions, "
+            + stats.invalidations() + " invalidated"), false);
+        return 1;
+    }
+
     private static int run(CommandContext<ServerCommandSource> ctx) {
         ServerPlayerEntity player;
         try {
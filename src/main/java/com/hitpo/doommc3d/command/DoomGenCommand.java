@@ -1,24 +1,34 @@
 package com.hitpo.doommc3d.command;
 
+import com.hitpo.doommc3d.worldgen.DoomBuildJob;
 import com.hitpo.doommc3d.worldgen.DoomWorldBuilder;
 import com.hitpo.doommc3d.state.DoomWorldState;
 import com.hitpo.doommc3d.item.ModItems;
+import com.hitpo.doommc3d.wad.WadCatalog;
 import com.mojang.brigadier.arguments.StringArgumentType;
 import com.mojang.brigadier.context.CommandContext;
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import java.util.Locale;
+import net.minecraft.command.CommandSource;
 import net.minecraft.item.ItemStack;
 import net.minecraft.server.command.CommandManager;
 import net.minecraft.server.command.ServerCommandSource;
 import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.text.Text;
 
 public class DoomGenCommand {
     public static void register() {
         CommandRegistrationCallback.EVENT.register((dispatcher, registryAccess, environment) -> {
             dispatcher.register(CommandManager.literal("doomgen")
+                .then(CommandManager.literal("cancel").executes(DoomGenCommand::cancel))
                 .then(CommandManager.argument("map", StringArgumentType.word())
+                    .suggests((ctx, builder) -> CommandSource.suggestMatching(
+                        WadCatalog.mapNames().stream().map(name -> name.toLowerCase(Locale.ROOT)), builder))
                     .executes(ctx -> run(ctx, null))
                     .then(CommandManager.argument("wad", StringArgumentType.word())
+                        .suggests((ctx, builder) -> CommandSource.suggestMatching(
+                            WadCatalog.entries().stream().map(WadCatalog.Entry::fileName), builder))
                         .executes(ctx -> run(ctx, StringArgumentType.getString(ctx, "wad")))
                     )
                 )
@@ -28,6 +38,7 @@ public class DoomGenCommand {
 
     private static int run(CommandContext<ServerCommandSource> ctx, String wadOverride) throws CommandSyntaxException {
         String map = StringArgumentType.getString(ctx, "map");
+        WadCatalog.refreshAsync();
         ServerPlayerEntity player = ctx.getSource().getPlayer();
         DoomWorldBuilder.build(ctx.getSource().getWorld(), player, map, wadOverride);
         giveStartingPistol(player);
@@ -40,6 +51,19 @@ public class DoomGenCommand {
         return 1;
     }
 
+    private static int cancel(CommandContext<ServerCommandSource> ctx) {
+        boolean pending = DoomWorldBuilder.cancelPending(ctx.getSource().getWorld());
+        if (DoomBuildJob.cancel(ctx.getSource().getWorld())) {
+            return 1;
+        }
+        if (pending) {
+            ctx.getSource().sendFeedback(() -> Text.literal("[DoomMC3D] Map build cancelled before placement"), false);
+            return 1;
+        }
+        ctx.getSource().sendFeedback(() -> Text.literal("[DoomMC3D] No map build in progress"), false);
+        return 0;
+    }
+
     private static void giveStartingPistol(ServerPlayerEntity player) {
         ItemStack pistol = new ItemStack(ModItems.DOOM_PISTOL);
         if (!player.getInventory().contains(pistol)) {
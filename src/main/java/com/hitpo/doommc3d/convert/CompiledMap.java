@@ -0,0 +1,203 @@
+package com.hitpo.doommc3d.convert;
+
+import com.hitpo.doommc3d.doommap.DoomMap;
+import com.hitpo.doommc3d.doommap.DoomMapData;
+import com.hitpo.doommc3d.doommap.Vertex;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Everything about a map that doesn't depend on where it is built: the parsed arrays, the origin,
+ * the block cells each sector's floor covers, and sound adjacency. Sector outlines come from the
+ * map's {@link com.hitpo.doommc3d.doommap.DoomMapTopology}.
+ *
+ * Block cells are relative to {@link #origin()}, which is itself derived from the map, so a
+ * compiled map can be reused at any build position. See {@link CompiledMapCache}.
+ */
+public final class CompiledMap {
+    public static final int FORMAT_VERSION = 6;
+
+    // Vanilla Doom line flag (p_spec.h): blocks sound propagation.
+    private static final int ML_SOUNDBLOCK = 64;
+
+    private final DoomMapData data;
+    private final DoomMap map;
+    private final DoomOrigin origin;
+    private final SectorMask[] sectorMasks;
+    private final int[][] soundNeighbors;
+
+    private CompiledMap(DoomMapData data, DoomOrigin origin, SectorMask[] sectorMasks, int[][] soundNeighbors) {
+        this.data = data;
+        this.map = data.toMap();
+        this.origin = origin;
+        this.sectorMasks = sectorMasks;
+        this.soundNeighbors = soundNeighbors;
+    }
+
+    public static CompiledMap compile(DoomMapData data) {
+        DoomMap map = data.toMap();
+        DoomOrigin origin = DoomOrigin.fromMap(map);
+        int sectorCount = data.sectorCount();
+        SectorMask[] masks = new SectorMask[sectorCount];
+        for (int sector = 0; sector < sectorCount; sector++) {
+            masks[sector] = ScanlineRasterizer.fill(data, data.topology().sectorLoops(sector), origin.originBlockX(), origin.originBlockZ());
+        }
+        return new CompiledMap(data, origin, masks, buildSoundNeighbors(data));
+    }
+
+    public DoomMapData data() {
+        return data;
+    }
+
+    public DoomMap map() {
+        return map;
+    }
+
+    public DoomOrigin origin() {
+        return origin;
+    }
+
+    public int sectorCount() {
+        return sectorMasks.length;
+    }
+
+    /**
+     * Vertex indices of the sector's outer outline, in edge order. Empty if the sector has no lines.
+     */
+    public int[] sectorPolygon(int sector) {
+        return data.topology().sectorPolygon(sector);
+    }
+
+    public List<Vertex> sectorPolygonVertices(int sector) {
+        return data.topology().sectorPolygonVertices(sector);
+    }
+
+    public SectorMask sectorMask(int sector) {
+        return sectorMasks[sector];
+    }
+
+    public int[] soundNeighbors(int sector) {
+        return soundNeighbors[sector];
+    }
+
+    public void writeTo(DataOutput out) throws IOException {
+        data.writeTo(out);
+        out.writeInt(origin.originBlockX());
+        out.writeInt(origin.originBlockZ());
+        for (int sector = 0; sector < sectorCount(); sector++) {
+            SectorMask mask = sectorMasks[sector];
+            out.writeInt(mask.minX());
+            out.writeInt(mask.minZ());
+            out.writeInt(mask.width());
+            out.writeInt(mask.depth());
+            out.writeInt(mask.bits().length);
+            for (long word : mask.bits()) {
+                out.writeLong(word);
+            }
+            writeIntArray(out, soundNeighbors[sector]);
+        }
+    }
+
+    public static CompiledMap readFrom(ByteBuffer in) {
+        DoomMapData data = DoomMapData.readFrom(in);
+        DoomOrigin origin = new DoomOrigin(in.getInt(), in.getInt());
+        int sectorCount = data.sectorCount();
+        SectorMask[] masks = new SectorMask[sectorCount];
+        int[][] neighbors = new int[sectorCount][];
+        for (int sector = 0; sector < sectorCount; sector++) {
+            int minX = in.getInt();
+            int minZ = in.getInt();
+            int width = in.getInt();
+            int depth = in.getInt();
+            long[] bits = new long[in.getInt()];
+            in.asLongBuffer().get(bits);
+            in.position(in.position() + bits.length * 8);
+            masks[sector] = new SectorMask(minX, minZ, width, depth, bits);
+            neighbors[sector] = readIntArray(in);
+        }
+        return new CompiledMap(data, origin, masks, neighbors);
+    }
+
+    private static int[][] buildSoundNeighbors(DoomMapData data) {
+        int sectorCount = data.sectorCount();
+        int[][] neighbors = new int[sectorCount][0];
+        for (int line = 0; line < data.linedefCount(); line++) {
+            int right = sectorFromSide(data, data.lineRight[line]);
+            int left = sectorFromSide(data, data.lineLeft[line]);
+            if (right < 0 || left < 0 || right == left || right >= sectorCount || left >= sectorCount) {
+                continue;
+            }
+            if ((data.lineFlags[line] & ML_SOUNDBLOCK) != 0) {
+                continue;
+            }
+            neighbors[right] = addUnique(neighbors[right], left);
+            neighbors[left] = addUnique(neighbors[left], right);
+        }
+        return neighbors;
+    }
+
+    private static int[] addUnique(int[] values, int value) {
+        for (int existing : values) {
+            if (existing == value) {
+                return values;
+            }
+        }
+        int[] grown = Arrays.copyOf(values, values.length + 1);
+        grown[values.length] = value;
+        return grown;
+    }
+
+    private static int sectorFromSide(DoomMapData data, int side) {
+        if (side < 0 || side >= data.sidedefCount()) {
+            return -1;
+        }
+        return data.sideSector[side];
+    }
+
+    private static void writeIntArray(DataOutput out, int[] values) throws IOException {
+        out.writeInt(values.length);
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    private static int[] readIntArray(ByteBuffer in) {
+        int[] values = new int[in.getInt()];
+        in.asIntBuffer().get(values);
+        in.position(in.position() + values.length * 4);
+        return values;
+    }
+
+    /**
+     * Block cells (relative to the map origin) whose centre lies inside a sector, as a bitset over
+     * the sector's bounding box. Bit {@code x * depth + z} is cell {@code (minX + x, minZ + z)}.
+     */
+    public record SectorMask(int minX, int minZ, int width, int depth, long[] bits) {
+        public static final SectorMask EMPTY = new SectorMask(0, 0, 0, 0, new long[0]);
+
+        public boolean isEmpty() {
+            return width == 0;
+        }
+
+        public boolean contains(int blockX, int blockZ) {
+            int x = blockX - minX;
+            int z = blockZ - minZ;
+            if (x < 0 || z < 0 || x >= width || z >= depth) {
+                return false;
+            }
+            int bit = x * depth + z;
+            return (bits[bit >>> 6] & (1L << bit)) != 0;
+        }
+
+        public int cellCount() {
+            int count = 0;
+            for (long word : bits) {
+                count += Long.bitCount(word);
+            }
+            return count;
+        }
+    }
+}
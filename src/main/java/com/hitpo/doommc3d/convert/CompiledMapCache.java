@@ -0,0 +1,96 @@
+package com.hitpo.doommc3d.convert;
+
+import com.hitpo.doommc3d.DoomConstants;
+import com.hitpo.doommc3d.wad.DoomMapParser;
+import com.hitpo.doommc3d.wad.WadLoader;
+import com.hitpo.doommc3d.wad.WadLumpSource;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+/**
+ * On-disk cache of {@link CompiledMap}s under mods/doommc3d/compiled/, keyed by WAD content hash,
+ * map name and {@link DoomConstants#DOOM_TO_MC_SCALE}.
+ *
+ * The first build of a map compiles and writes it; later builds (including auto-load on join)
+ * memory-map the file and skip parsing, polygon ordering and floor rasterisation. Disable with
+ * {@code -Ddoommc3d.compiledCache=false}.
+ */
+public final class CompiledMapCache {
+    private static final int MAGIC = 0x444D4331; // "DMC1"
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("doommc3d.compiledCache", "true"));
+
+    private CompiledMapCache() {
+    }
+
+    public static Path getCacheDirectory() {
+        return WadLoader.getDataDirectory().resolve("compiled");
+    }
+
+    public static CompiledMap getOrCompile(WadLumpSource wad, String mapName) {
+        if (!ENABLED) {
+            return CompiledMap.compile(DoomMapParser.parseData(wad, mapName));
+        }
+        Path file;
+        try {
+            file = cacheFile(wad, mapName);
+        } catch (IOException e) {
+            com.hitpo.doommc3d.util.DebugLogger.debug("CompiledMapCache", () -> "[DoomMC3D] Cannot hash " + wad.getName() + ", compiling uncached: " + e);
+            return CompiledMap.compile(DoomMapParser.parseData(wad, mapName));
+        }
+
+        CompiledMap cached = read(file, mapName);
+        if (cached != null) {
+            com.hitpo.doommc3d.util.DebugLogger.debug("CompiledMapCache", () -> "[DoomMC3D] Using compiled " + file.getFileName());
+            return cached;
+        }
+        CompiledMap compiled = CompiledMap.compile(DoomMapParser.parseData(wad, mapName));
+        write(file, compiled);
+        return compiled;
+    }
+
+    static Path cacheFile(WadLumpSource wad, String mapName) throws IOException {
+        String name = String.format(Locale.ROOT, "%016x_%s_%d.dmc", wad.contentHash(), mapName.toUpperCase(Locale.ROOT), DoomConstants.DOOM_TO_MC_SCALE);
+        return getCacheDirectory().resolve(name);
+    }
+
+    private static CompiledMap read(Path file, String mapName) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.getInt() != MAGIC || in.getInt() != CompiledMap.FORMAT_VERSION || in.getInt() != DoomConstants.DOOM_TO_MC_SCALE) {
+                return null;
+            }
+            CompiledMap map = CompiledMap.readFrom(in);
+            return map.data().name.equalsIgnoreCase(mapName) ? map : null;
+        } catch (IOException | RuntimeException e) {
+            com.hitpo.doommc3d.util.DebugLogger.debug("CompiledMapCache", () -> "[DoomMC3D] Discarding unreadable " + file.getFileName() + ": " + e);
+            return null;
+        }
+    }
+
+    private static void write(Path file, CompiledMap map) {
+        try {
+            Files.createDirectories(file.getParent());
+            Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(CompiledMap.FORMAT_VERSION);
+                out.writeInt(DoomConstants.DOOM_TO_MC_SCALE);
+                map.writeTo(out);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            com.hitpo.doommc3d.util.DebugLogger.debug("CompiledMapCache", () -> "[DoomMC3D] Could not write " + file.getFileName() + ": " + e);
+        }
+    }
+}
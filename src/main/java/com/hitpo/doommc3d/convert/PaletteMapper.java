@@ -1,155 +1,105 @@
 package com.hitpo.doommc3d.convert;
 
-import net.minecraft.block.Block;
+import com.hitpo.doommc3d.doommap.TextureDictionary;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 
 import java.util.Locale;
-
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Doom texture and flat names to blocks, driven by the rules in doommc3d_palette.txt. Each distinct
+ * name is resolved against the rules once and memoised; {@link #tableFor} turns a map's whole
+ * texture dictionary into flat arrays indexed by texture id for the rasteriser's inner loops. Level
+ * walls are styled by the rasteriser rather than mapped, so wall rules apply where
+ * {@link #mapWall} is called directly (lift side walls).
+ */
 public final class PaletteMapper {
     private static final BlockState DEFAULT_WALL = Blocks.POLISHED_ANDESITE.getDefaultState();
     private static final BlockState DEFAULT_FLOOR = Blocks.DEEPSLATE_TILES.getDefaultState();
     private static final BlockState DEFAULT_CEILING = Blocks.SMOOTH_STONE.getDefaultState();
 
+    // Rasterisation runs on fork-join workers, so lookups may come from several threads at once.
+    private static final Map<String, BlockState> WALLS = new ConcurrentHashMap<>();
+    private static final Map<String, BlockState> FLOORS = new ConcurrentHashMap<>();
+    private static final Map<String, BlockState> CEILINGS = new ConcurrentHashMap<>();
+
     private PaletteMapper() {
     }
 
     public static BlockState mapWall(String texture) {
-        if (texture == null || texture.isBlank() || texture.equals("-")) {
-            return DEFAULT_WALL;
-        }
-        String t = texture.trim().toUpperCase(Locale.ROOT);
-
-        // Doom tech/support textures -> clean tech blocks
-        if (t.startsWith("SUPPORT") || t.contains("SUPPORT")) {
-            return Blocks.POLISHED_ANDESITE.getDefaultState();
-        }
-
-        // E1 techbase vibe: STARTAN/STARGR/TEKWALL/etc.
-        if (t.startsWith("STARTAN") || t.startsWith("STARGR") || t.startsWith("STARG")) {
-            return Blocks.POLISHED_ANDESITE.getDefaultState();
-        }
-
-        // Tech panels and computers -> clean gray tech
-        if (t.contains("TEKWALL") || t.contains("COMPUTE") || t.contains("COMP") || t.contains("PANEL")) {
-            return Blocks.LIGHT_GRAY_CONCRETE.getDefaultState();
-        }
-
-        // Doors -> iron
-        if (t.startsWith("DOOR") || t.contains("DOOR")) {
-            return Blocks.IRON_BLOCK.getDefaultState();
-        }
-
-        // Metal and pipes -> iron
-        if (t.contains("METAL") || t.contains("PIPE")) {
-            return Blocks.IRON_BLOCK.getDefaultState();
-        }
-
-        // Bricks and stone -> stone bricks and deepslate bricks
-        if (t.contains("BRICK")) {
-            if (t.contains("DARK")) {
-                return Blocks.DEEPSLATE_BRICKS.getDefaultState();
-            }
-            return Blocks.STONE_BRICKS.getDefaultState();
-        }
-
-        // Stone textures -> polished basalt or deepslate bricks
-        if (t.contains("STONE") || t.startsWith("GRAY")) {
-            if (t.contains("ROUGH") || t.contains("DARK")) {
-                return Blocks.DEEPSLATE_TILES.getDefaultState();
-            }
-            return Blocks.POLISHED_BASALT.getDefaultState();
-        }
-
-        // Brown terracotta
-        if (t.contains("BROWN")) {
-            return Blocks.BROWN_TERRACOTTA.getDefaultState();
-        }
-
-        // Pillars and columns -> try to differentiate
-        if (t.contains("PILLAR") || t.contains("COLUMN")) {
-            if (t.contains("DARK")) {
-                return Blocks.POLISHED_DEEPSLATE.getDefaultState();
-            }
-            return Blocks.SMOOTH_QUARTZ.getDefaultState();
-        }
-
-        // Walls -> use stone bricks for good Doom feel
-        if (t.contains("WALL")) {
-            if (t.contains("DARK") || t.contains("GRAY") || t.contains("SLATE")) {
-                return Blocks.DEEPSLATE_BRICKS.getDefaultState();
-            }
-            return Blocks.STONE_BRICKS.getDefaultState();
-        }
-
-        return DEFAULT_WALL;
+        return resolve(WALLS, PaletteRules.Kind.WALL, texture, DEFAULT_WALL);
     }
 
     public static BlockState mapFloor(String flat) {
-        if (flat == null || flat.isBlank() || flat.equals("-")) {
-            return DEFAULT_FLOOR;
-        }
-        String t = flat.trim().toUpperCase(Locale.ROOT);
-
-        // Tech/metallic lift floors -> consistent lift metal look
-        if (t.contains("LIFTTECH") || t.contains("METALFLR") || t.contains("TECHFLR")) {
-            return Blocks.IRON_BLOCK.getDefaultState();
-        }
+        return resolve(FLOORS, PaletteRules.Kind.FLOOR, flat, DEFAULT_FLOOR);
+    }
 
-        // Teleport gates
-        if (t.contains("GATE") || t.contains("TELE")) {
-            return Blocks.CYAN_CONCRETE.getDefaultState();
-        }
+    public static BlockState mapCeiling(String flat) {
+        return resolve(CEILINGS, PaletteRules.Kind.CEILING, flat, DEFAULT_CEILING);
+    }
 
-        // Nukage / slime pools
-        if (t.contains("NUKAGE") || t.contains("SLIME")) {
-            return Blocks.LIME_CONCRETE.getDefaultState();
-        }
+    // Backwards-compatible alias for existing callsites.
+    public static BlockState map(String texture) {
+        return mapWall(texture);
+    }
 
-        // Industrial floors with tech vibe
-        if (t.startsWith("FLOOR") || t.startsWith("FLAT") || t.startsWith("STEP")) {
-            return Blocks.DEEPSLATE_TILES.getDefaultState();
-        }
+    /**
+     * Identifies the loaded palette rules, for caches of converted blocks to check they are current.
+     */
+    public static long rulesHash() {
+        return Rules.INSTANCE.hash();
+    }
 
-        // Metal grates and grids -> darker floor look
-        if (t.contains("GRATE") || t.contains("GRN") || t.contains("GRID")) {
-            return Blocks.POLISHED_BLACKSTONE.getDefaultState();
-        }
+    /**
+     * Floor and ceiling blocks for every texture id in {@code textures}.
+     */
+    public static Table tableFor(TextureDictionary textures) {
+        int size = textures.size();
+        BlockState[] floors = new BlockState[size];
+        BlockState[] ceilings = new BlockState[size];
+        for (int id = 0; id < size; id++) {
+            String name = textures.name(id);
+            floors[id] = mapFloor(name);
+            ceilings[id] = mapCeiling(name);
+        }
+        return new Table(floors, ceilings);
+    }
 
-        // Dark/slate floors
-        if (t.contains("DARK") || t.contains("SLATE") || t.contains("DM")) {
-            return Blocks.DEEPSLATE_TILES.getDefaultState();
+    private static BlockState resolve(Map<String, BlockState> cache, PaletteRules.Kind kind, String name, BlockState fallback) {
+        if (name == null || name.isBlank() || name.equals("-")) {
+            return fallback;
         }
+        return cache.computeIfAbsent(name.trim().toUpperCase(Locale.ROOT), key -> {
+            BlockState state = Rules.INSTANCE.match(kind, key);
+            return state != null ? state : fallback;
+        });
+    }
 
-        // Default industrial Doom-ish look
-        return DEFAULT_FLOOR;
+    // Loaded on first lookup, once the block registry is populated.
+    private static final class Rules {
+        static final PaletteRules INSTANCE = PaletteRules.load();
     }
 
-    public static BlockState mapCeiling(String flat) {
-        if (flat == null || flat.isBlank() || flat.equals("-")) {
-            return DEFAULT_CEILING;
-        }
-        String t = flat.trim().toUpperCase(Locale.ROOT);
-
-        // Standard ceiling textures
-        if (t.startsWith("CEIL") || t.contains("CEIL")) {
-            if (t.contains("DARK") || t.contains("SLATE")) {
-                return Blocks.POLISHED_DEEPSLATE.getDefaultState();
-            }
-            return Blocks.SMOOTH_STONE.getDefaultState();
-        }
+    /**
+     * One map's texture id to flat block lookups. Ids outside the dictionary get the defaults.
+     */
+    public static final class Table {
+        private final BlockState[] floors;
+        private final BlockState[] ceilings;
 
-        // Dark/tech ceilings
-        if (t.contains("DARK") || t.contains("TECH")) {
-            return Blocks.POLISHED_DEEPSLATE.getDefaultState();
+        private Table(BlockState[] floors, BlockState[] ceilings) {
+            this.floors = floors;
+            this.ceilings = ceilings;
         }
 
-        // Default industrial Doom ceiling
-        return DEFAULT_CEILING;
-    }
+        public BlockState floor(int id) {
+            return id >= 0 && id < floors.length ? floors[id] : DEFAULT_FLOOR;
+        }
 
-    // Backwards-compatible alias for existing callsites.
-    public static BlockState map(String texture) {
-        return mapWall(texture);
+        public BlockState ceiling(int id) {
+            return id >= 0 && id < ceilings.length ? ceilings[id] : DEFAULT_CEILING;
+        }
     }
 }
@@ -0,0 +1,164 @@
+package com.hitpo.doommc3d.convert;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.registry.Registries;
+import net.minecraft.util.Identifier;
+
+/**
+ * Texture-name rules from doommc3d_palette.txt (config/ first, then the bundled copy), compiled
+ * once into patterns and block states. See that file for the format.
+ */
+final class PaletteRules {
+    private static final String FILE_NAME = "doommc3d_palette.txt";
+
+    enum Kind {
+        WALL,
+        FLOOR,
+        CEILING
+    }
+
+    private final Map<Kind, List<Rule>> rules = new EnumMap<>(Kind.class);
+    // Folded over the accepted rules in order, so comments and spacing don't change it.
+    private long hash;
+
+    private PaletteRules() {
+        for (Kind kind : Kind.values()) {
+            rules.put(kind, new ArrayList<>());
+        }
+    }
+
+    static PaletteRules load() {
+        Path external = Path.of("config", FILE_NAME);
+        try (InputStream in = Files.exists(external) ? Files.newInputStream(external) : PaletteRules.class.getClassLoader().getResourceAsStream(FILE_NAME)) {
+            if (in != null) {
+                return parse(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+            }
+        } catch (IOException e) {
+            com.hitpo.doommc3d.util.DebugLogger.debug("PaletteRules.load", () -> "[DoomMC3D] Could not read " + FILE_NAME + ": " + e.getMessage());
+        }
+        return new PaletteRules();
+    }
+
+    static PaletteRules parse(BufferedReader reader) throws IOException {
+        PaletteRules compiled = new PaletteRules();
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            Rule rule = compiled.parseRule(line);
+            if (rule == null) {
+                int at = lineNumber;
+                String bad = line;
+                com.hitpo.doommc3d.util.DebugLogger.debug("PaletteRules.skip", () -> "[DoomMC3D] " + FILE_NAME + ":" + at + " skipped: " + bad);
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * The block of the first rule of {@code kind} matching {@code name} (already upper-cased), or
+     * null if none does.
+     */
+    BlockState match(Kind kind, String name) {
+        for (Rule rule : rules.get(kind)) {
+            if (rule.matches(name)) {
+                return rule.state();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Identifies the rules that were loaded; equal for rule files that map every name the same way.
+     */
+    long hash() {
+        return hash;
+    }
+
+    // Adds the rule and returns it, or returns null if the line is malformed or names an unknown block.
+    private Rule parseRule(String line) {
+        int equals = line.lastIndexOf('=');
+        if (equals < 0) {
+            return null;
+        }
+        String[] head = line.substring(0, equals).trim().split("\\s+");
+        if (head.length < 2) {
+            return null;
+        }
+        Kind kind;
+        try {
+            kind = Kind.valueOf(head[0].toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        Identifier id = Identifier.tryParse(line.substring(equals + 1).trim());
+        if (id == null) {
+            return null;
+        }
+        BlockState state = Registries.BLOCK.getOptionalValue(id).map(Block::getDefaultState).orElse(null);
+        if (state == null) {
+            return null;
+        }
+        Pattern[] patterns = new Pattern[head.length - 1];
+        StringBuilder key = new StringBuilder(kind.name());
+        for (int i = 1; i < head.length; i++) {
+            String glob = head[i].toUpperCase(Locale.ROOT);
+            patterns[i - 1] = compileGlob(glob);
+            key.append(' ').append(glob);
+        }
+        Rule rule = new Rule(patterns, state);
+        rules.get(kind).add(rule);
+        hash = hash * 31 + key.append('=').append(id).toString().hashCode();
+        return rule;
+    }
+
+    // "A*|*B" -> (?:\QA\E.*|.*\QB\E), matched against the whole name.
+    private static Pattern compileGlob(String glob) {
+        StringBuilder regex = new StringBuilder("(?:");
+        String[] alternatives = glob.split("\\|");
+        for (int i = 0; i < alternatives.length; i++) {
+            if (i > 0) {
+                regex.append('|');
+            }
+            String[] parts = alternatives[i].split("\\*", -1);
+            for (int j = 0; j < parts.length; j++) {
+                if (j > 0) {
+                    regex.append(".*");
+                }
+                if (!parts[j].isEmpty()) {
+                    regex.append(Pattern.quote(parts[j]));
+                }
+            }
+        }
+        return Pattern.compile(regex.append(')').toString());
+    }
+
+    private record Rule(Pattern[] patterns, BlockState state) {
+        boolean matches(String name) {
+            for (Pattern pattern : patterns) {
+                if (!pattern.matcher(name).matches()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
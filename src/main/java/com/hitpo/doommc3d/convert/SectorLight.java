@@ -0,0 +1,73 @@
+package com.hitpo.doommc3d.convert;
+
+import com.hitpo.doommc3d.doommap.Sector;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.state.property.Properties;
+
+/**
+ * Ceiling light blocks for one sector. The Doom light level, grid spacing and light block states are
+ * worked out once per sector, so deciding whether a cell gets a light is two modulo checks.
+ */
+final class SectorLight {
+    // Blocks.LIGHT at every LEVEL_15 value, indexed by level.
+    private static final BlockState[] LEVELS = new BlockState[16];
+    // Slightly larger baseline so very dark sectors still get minimal light (prevents pitch-black overlays).
+    private static final int MIN_MC_BASELINE = 3;
+
+    static {
+        BlockState base = Blocks.LIGHT.getDefaultState();
+        for (int level = 0; level < LEVELS.length; level++) {
+            LEVELS[level] = base.with(Properties.LEVEL_15, level);
+        }
+    }
+
+    private final int spacing;
+    private final int secondary;
+    private final BlockState primary;
+    private final BlockState filler;
+
+    private SectorLight(int spacing, BlockState primary, BlockState filler) {
+        this.spacing = spacing;
+        this.secondary = Math.max(1, spacing / 2);
+        this.primary = primary;
+        this.filler = filler;
+    }
+
+    static SectorLight of(Sector sector) {
+        int doom = Math.max(0, Math.min(255, sector.lightLevel()));
+
+        // Map Doom sector light (0..255) -> MC light (0..15) using Chocolate Doom formula:
+        // lightnum = doom >> LIGHTSEGSHIFT (4). This produces 16 discrete levels.
+        int mc = Math.max(MIN_MC_BASELINE, (doom >> 4) & 0xF);
+
+        // Filler lights use a stronger value to avoid very dark pockets; keep at least 2.
+        return new SectorLight(spacing(mc), LEVELS[mc], LEVELS[Math.max(2, mc)]);
+    }
+
+    /**
+     * The light block for the ceiling cell above (x, z), or null if the cell gets none.
+     */
+    BlockState at(int x, int z) {
+        // Primary placement on spacing grid
+        if (Math.floorMod(x, spacing) == 0 && Math.floorMod(z, spacing) == 0) {
+            return primary;
+        }
+        // Secondary, lower-level filler lights at half-spacing to reduce completely dark gaps
+        if (Math.floorMod(x, secondary) == 0 && Math.floorMod(z, secondary) == 0) {
+            return filler;
+        }
+        return null;
+    }
+
+    private static int spacing(int mcLight) {
+        // Prefer denser spacing for darker sectors to avoid large pitch-black gaps.
+        if (mcLight >= 14) return 10;
+        if (mcLight >= 12) return 8;
+        if (mcLight >= 10) return 6;
+        if (mcLight >= 8) return 5;
+        if (mcLight >= 6) return 4;
+        if (mcLight >= 4) return 3;
+        return 2;
+    }
+}
@@ -2,57 +2,66 @@ package com.hitpo.doommc3d.convert;
 
 import com.hitpo.doommc3d.DoomConstants;
 import com.hitpo.doommc3d.doommap.DoomMap;
+import com.hitpo.doommc3d.doommap.DoomMapData;
+import com.hitpo.doommc3d.doommap.DoomMapTopology;
 import com.hitpo.doommc3d.doommap.Linedef;
 import com.hitpo.doommc3d.doommap.Sector;
 import com.hitpo.doommc3d.doommap.Sidedef;
-import com.hitpo.doommc3d.doommap.Thing;
 import com.hitpo.doommc3d.doommap.Vertex;
 import com.hitpo.doommc3d.worldgen.BlockPlacer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import net.minecraft.block.Blocks;
 import net.minecraft.block.BlockState;
-import net.minecraft.state.property.Properties;
-
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
 
 public final class SectorRasterizer {
-    private static final BlockState DEFAULT_FLOOR_STATE = Blocks.DEEPSLATE_TILES.getDefaultState();
-    private static final BlockState DEFAULT_CEILING_STATE = Blocks.SMOOTH_STONE.getDefaultState();
-    private static final BlockState FALLBACK_WALL_STATE = Blocks.POLISHED_ANDESITE.getDefaultState();
+    /**
+     * Bumped whenever the blocks a level converts to change for the same map and palette rules
+     * (rasteriser, lights or roof), so saved level snapshots from older builds are rebuilt.
+     */
+    public static final int OUTPUT_VERSION = 1;
+
     private static final BlockState BAND_TOP_BOTTOM_STATE = Blocks.LIGHT_GRAY_CONCRETE.getDefaultState();
     private static final BlockState BAND_MIDDLE_STATE = Blocks.POLISHED_ANDESITE.getDefaultState();
     private static final BlockState PILLAR_MIDDLE_STATE = Blocks.CUT_SANDSTONE.getDefaultState();
     private static final BlockState PILLAR_TRIM_STATE = Blocks.SMOOTH_QUARTZ.getDefaultState();
     private static final BlockState AIR_STATE = Blocks.AIR.getDefaultState();
-    private static final BlockState LIGHT_BASE = Blocks.LIGHT.getDefaultState();
     private static final int MIN_INTERIOR_AIR_BLOCKS = 3;
     private static final int PILLAR_MAX_BOUNDS_BLOCKS = 6;
     private static final int PILLAR_MAX_AREA_BLOCKS = 28;
 
-    public void rasterize(DoomMap map, BlockPlacer placer, DoomOrigin origin) {
-        Vertex[] vertices = map.vertices();
-        if (vertices.length == 0) {
-            return;
-        }
-        int originBlockX = origin.originBlockX();
-        int originBlockZ = origin.originBlockZ();
-        for (int sector = 0; sector < map.sectors().length; sector++) {
-            rasterizeSector(map, sector, placer, originBlockX, originBlockZ);
+    // Sectors per fork-join leaf; small maps stay on one worker.
+    private static final int SECTORS_PER_TASK = 16;
+
+    /**
+     * Computes the level's blocks on the common fork-join pool, then places them on the calling
+     * thread; see {@link VoxelBuffer#applyTo} for which threads that may be.
+     */
+    public void rasterize(CompiledMap compiled, BlockPlacer placer) {
+        compute(compiled).applyTo(placer);
+    }
+
+    /**
+     * Every floor, ceiling, air, wall and light write for the level, in sector order. Touches no
+     * world state, so it can run on any thread; sector ranges are rasterised in parallel and joined
+     * in order, giving exactly the sequence a single-threaded pass would.
+     */
+    public VoxelBuffer compute(CompiledMap compiled) {
+        DoomMap map = compiled.map();
+        if (map.vertices().length == 0) {
+            return new VoxelBuffer();
         }
+        PaletteMapper.Table palette = PaletteMapper.tableFor(map.data().textures());
+        return ForkJoinPool.commonPool().invoke(new SectorRangeTask(compiled, palette, 0, map.sectors().length));
     }
 
-    private void rasterizeSector(DoomMap map, int sectorIndex, BlockPlacer placer, int originBlockX, int originBlockZ) {
+    private void rasterizeSector(CompiledMap compiled, PaletteMapper.Table palette, int sectorIndex, VoxelBuffer placer, int originBlockX, int originBlockZ) {
+        DoomMap map = compiled.map();
         Sector sector = map.sectors()[sectorIndex];
-        List<Vertex> polygon = buildSectorPolygon(map, sectorIndex);
-        if (polygon.isEmpty()) {
+        CompiledMap.SectorMask mask = compiled.sectorMask(sectorIndex);
+        if (mask.isEmpty()) {
             return;
         }
-        int minX = polygon.stream().mapToInt(Vertex::x).min().orElse(0);
-        int maxX = polygon.stream().mapToInt(Vertex::x).max().orElse(0);
-        int minZ = polygon.stream().mapToInt(Vertex::y).min().orElse(0);
-        int maxZ = polygon.stream().mapToInt(Vertex::y).max().orElse(0);
 
         int floorY = DoomToMCScale.toBlock(sector.floorHeight());
         int ceilingY = DoomToMCScale.toBlock(sector.ceilingHeight());
@@ -63,50 +72,50 @@ public final class SectorRasterizer {
             ceilingY = floorY + MIN_INTERIOR_AIR_BLOCKS + 1;
         }
 
-        int startX = DoomToMCScale.toBlock(minX) - originBlockX;
-        int endX = DoomToMCScale.toBlock(maxX) - originBlockX;
-        int startZ = originBlockZ - DoomToMCScale.toBlock(maxZ);
-        int endZ = originBlockZ - DoomToMCScale.toBlock(minZ);
-
-        BlockState floorState = PaletteMapper.mapFloor(sector.floorTexture());
-        BlockState ceilingState = PaletteMapper.mapCeiling(sector.ceilingTexture());
-        if (floorState == null) floorState = DEFAULT_FLOOR_STATE;
-        if (ceilingState == null) ceilingState = DEFAULT_CEILING_STATE;
-
-        int boundsX = (endX - startX + 1);
-        int boundsZ = (endZ - startZ + 1);
-        boolean pillarCandidate = boundsX <= PILLAR_MAX_BOUNDS_BLOCKS && boundsZ <= PILLAR_MAX_BOUNDS_BLOCKS
-            && (boundsX * boundsZ) <= PILLAR_MAX_AREA_BLOCKS;
-
-        int filled = 0;
-        for (int blockX = startX; blockX <= endX; blockX++) {
-            for (int blockZ = startZ; blockZ <= endZ; blockZ++) {
-                double doomX = toDoomX(blockX, originBlockX);
-                double doomZ = toDoomZ(blockZ, originBlockZ);
-                if (containsPoint(polygon, doomX, doomZ)) {
-                    filled++;
-                    placer.placeBlock(blockX, floorY, blockZ, floorState);
-                    placer.placeBlock(blockX, ceilingY, blockZ, ceilingState);
-                    if (ceilingY - floorY > 1) {
-                        placer.placeColumn(blockX, blockZ, floorY + 1, ceilingY - 1, AIR_STATE);
-                    }
-                    maybePlaceLight(sector, placer, blockX, blockZ, ceilingY);
+        BlockState floorState = palette.floor(map.data().sectorFloorTexture[sectorIndex]);
+        BlockState ceilingState = palette.ceiling(map.data().sectorCeilingTexture[sectorIndex]);
+        SectorLight light = SectorLight.of(sector);
+
+        int boundsX = mask.width();
+        int boundsZ = mask.depth();
+
+        // The mask already holds the cells whose centre is inside the sector, in x-then-z order.
+        long[] bits = mask.bits();
+        for (int word = 0; word < bits.length; word++) {
+            long remaining = bits[word];
+            while (remaining != 0) {
+                int bit = (word << 6) + Long.numberOfTrailingZeros(remaining);
+                remaining &= remaining - 1;
+                int blockX = mask.minX() + bit / boundsZ;
+                int blockZ = mask.minZ() + bit % boundsZ;
+                placer.placeBlock(blockX, floorY, blockZ, floorState);
+                // Light cells take the place of the ceiling block rather than overwriting it.
+                BlockState lightState = light.at(blockX, blockZ);
+                placer.placeBlock(blockX, ceilingY, blockZ, lightState != null ? lightState : ceilingState);
+                if (ceilingY - floorY > 1) {
+                    placer.placeColumn(blockX, blockZ, floorY + 1, ceilingY - 1, AIR_STATE);
                 }
             }
         }
 
-        boolean isPillar = pillarCandidate && filled > 0 && filled <= PILLAR_MAX_AREA_BLOCKS;
-        extrudeWalls(map, sectorIndex, placer, floorY, ceilingY, originBlockX, originBlockZ, isPillar);
+        // A small island sector standing inside another is a pillar block of its own.
+        boolean islandPillar = map.data().topology().enclosingSector(sectorIndex) >= 0
+            && boundsX <= PILLAR_MAX_BOUNDS_BLOCKS && boundsZ <= PILLAR_MAX_BOUNDS_BLOCKS
+            && (boundsX * boundsZ) <= PILLAR_MAX_AREA_BLOCKS;
+        extrudeWalls(map, sectorIndex, placer, floorY, ceilingY, originBlockX, originBlockZ, islandPillar);
     }
 
-    private void extrudeWalls(DoomMap map, int sectorIndex, BlockPlacer placer, int floorY, int ceilingY, int originBlockX, int originBlockZ, boolean isPillar) {
+    private void extrudeWalls(DoomMap map, int sectorIndex, VoxelBuffer placer, int floorY, int ceilingY, int originBlockX, int originBlockZ, boolean islandPillar) {
         Linedef[] linedefs = map.linedefs();
         Sidedef[] sidedefs = map.sidedefs();
-        for (Linedef linedef : linedefs) {
-            WallSlice slice = buildWallSlice(map, sectorIndex, linedef, sidedefs);
+        DoomMapTopology topology = map.data().topology();
+        for (int line : topology.sectorLines(sectorIndex)) {
+            WallSlice slice = buildWallSlice(map, sectorIndex, linedefs[line], sidedefs);
             if (slice == null) {
                 continue;
             }
+            // Lines around a hole in this sector are the faces of a pillar standing in it.
+            boolean isPillar = islandPillar || topology.isHoleLine(sectorIndex, line);
 
             Vertex[] vertices = map.vertices();
             Vertex start = vertices[slice.startVertex];
@@ -119,7 +128,7 @@ public final class SectorRasterizer {
             for (int step = 0; step <= steps; step++) {
                 int x = steps == 0 ? startX : startX + Math.round((endX - startX) * (step / (float) steps));
                 int z = steps == 0 ? startZ : startZ + Math.round((endZ - startZ) * (step / (float) steps));
-                placeWallColumn(map, sectorIndex, floorY, ceilingY, slice.neighborSector, x, z, slice.sidedef, placer, isPillar);
+                placeWallColumn(map, floorY, ceilingY, slice.neighborSector, x, z, slice.sideIndex, placer, isPillar);
             }
         }
     }
@@ -128,12 +137,12 @@ public final class SectorRasterizer {
         Sidedef right = safeSidedef(sidedefs, linedef.rightSidedef());
         if (right != null && right.sector() == sectorIndex) {
             int neighbor = getSectorFromSide(sidedefs, linedef.leftSidedef());
-            return new WallSlice(linedef.startVertex(), linedef.endVertex(), neighbor, right);
+            return new WallSlice(linedef.startVertex(), linedef.endVertex(), neighbor, linedef.rightSidedef());
         }
         Sidedef left = safeSidedef(sidedefs, linedef.leftSidedef());
         if (left != null && left.sector() == sectorIndex) {
             int neighbor = getSectorFromSide(sidedefs, linedef.rightSidedef());
-            return new WallSlice(linedef.endVertex(), linedef.startVertex(), neighbor, left);
+            return new WallSlice(linedef.endVertex(), linedef.startVertex(), neighbor, linedef.leftSidedef());
         }
         return null;
     }
@@ -145,17 +154,11 @@ public final class SectorRasterizer {
         return sidedefs[index];
     }
 
-    private BlockState paletteOrFallback(Sidedef side) {
-        BlockState state = PaletteMapper.mapWall(side.middleTexture());
-        return state != null ? state : FALLBACK_WALL_STATE;
-    }
-
-    private void placeWallColumn(DoomMap map, int sectorIndex, int floorY, int ceilingY, int neighborIndex, int x, int z, Sidedef side, BlockPlacer placer, boolean isPillar) {
+    private void placeWallColumn(DoomMap map, int floorY, int ceilingY, int neighborIndex, int x, int z, int sideIndex, VoxelBuffer placer, boolean isPillar) {
+        DoomMapData data = map.data();
         if (neighborIndex < 0) {
-            // One-sided: fill full height with middle texture
-            BlockState state = PaletteMapper.mapWall(side.middleTexture());
-            if (state == null) state = FALLBACK_WALL_STATE;
-            placeStyledWallColumn(x, z, floorY, ceilingY, state, placer, isPillar);
+            // One-sided: fill full height
+            placeStyledWallColumn(x, z, floorY, ceilingY, placer, isPillar);
             return;
         }
 
@@ -168,39 +171,33 @@ public final class SectorRasterizer {
         int ceilMin = Math.min(ceilingY, neighborCeiling);
         int ceilMax = Math.max(ceilingY, neighborCeiling);
 
-        // Lower wall segment (floor mismatch) -> lowerTexture
+        // Lower wall segment (floor mismatch)
         if (floorMax > floorMin) {
-            BlockState lower = PaletteMapper.mapWall(side.lowerTexture());
-            if (lower == null) lower = FALLBACK_WALL_STATE;
-            placeStyledWallColumn(x, z, floorMin, floorMax - 1, lower, placer, isPillar);
+            placeStyledWallColumn(x, z, floorMin, floorMax - 1, placer, isPillar);
         }
 
-        // Upper wall segment (ceiling mismatch) -> upperTexture
+        // Upper wall segment (ceiling mismatch)
         if (ceilMax > ceilMin) {
-            BlockState upper = PaletteMapper.mapWall(side.upperTexture());
-            if (upper == null) upper = FALLBACK_WALL_STATE;
-            placeStyledWallColumn(x, z, ceilMin + 1, ceilMax, upper, placer, isPillar);
+            placeStyledWallColumn(x, z, ceilMin + 1, ceilMax, placer, isPillar);
         }
 
         // Midtexture bars/windows on two-sided lines (no height mismatch)
         boolean heightsMatch = (floorY == neighborFloor) && (ceilingY == neighborCeiling);
-        boolean hasMid = side.middleTexture() != null
-            && !side.middleTexture().isBlank()
-            && !side.middleTexture().equals("-");
+        String middle = data.textures().name(data.sideMiddle[sideIndex]);
+        boolean hasMid = !middle.isBlank() && !middle.equals("-");
 
         if (heightsMatch && hasMid) {
             // Put bars in the opening
-            BlockState mid = PaletteMapper.mapWall(side.middleTexture());
-            if (mid == null) mid = FALLBACK_WALL_STATE;
-            placeStyledWallColumn(x, z, floorY, ceilingY - 1, mid, placer, isPillar);
+            placeStyledWallColumn(x, z, floorY, ceilingY - 1, placer, isPillar);
         }
     }
 
-    private void placeStyledWallColumn(int x, int z, int startY, int endY, BlockState state, BlockPlacer placer, boolean isPillar) {
+    // Walls are styled by position (trim bands, pillar faces) rather than mapped from their textures.
+    private void placeStyledWallColumn(int x, int z, int startY, int endY, VoxelBuffer placer, boolean isPillar) {
         int bottom = Math.min(startY, endY);
         int top = Math.max(startY, endY);
         for (int y = bottom; y <= top; y++) {
-            BlockState placed = state;
+            BlockState placed;
             if (isPillar) {
                 boolean trim = y == bottom || y == bottom + 1 || y == top || y == top - 1;
                 placed = trim ? PILLAR_TRIM_STATE : PILLAR_MIDDLE_STATE;
@@ -212,49 +209,6 @@ public final class SectorRasterizer {
         }
     }
 
-    private void maybePlaceLight(Sector sector, BlockPlacer placer, int x, int z, int ceilingY) {
-        int doom = Math.max(0, Math.min(255, sector.lightLevel()));
-
-        // Map Doom sector light (0..255) -> MC light (0..15) using Chocolate Doom formula:
-        // lightnum = doom >> LIGHTSEGSHIFT (4). This produces 16 discrete levels.
-        int mc = (doom >> 4) & 0xF;
-
-        // Ensure a slightly larger baseline so very dark sectors still get minimal light (prevents pitch-black overlays).
-        final int MIN_MC_BASELINE = 3;
-        mc = Math.max(MIN_MC_BASELINE, mc);
-
-        int spacing = lightSpacing(mc);
-        if (spacing <= 0) spacing = 4;
-
-        // Primary placement on spacing grid
-        if (Math.floorMod(x, spacing) == 0 && Math.floorMod(z, spacing) == 0) {
-            BlockState lightState = LIGHT_BASE.with(Properties.LEVEL_15, mc);
-            placer.placeBlock(x, ceilingY, z, lightState);
-            return;
-        }
-
-        // Secondary, lower-level filler lights at half-spacing to reduce completely dark gaps
-        int secondary = Math.max(1, spacing / 2);
-        if (Math.floorMod(x, secondary) == 0 && Math.floorMod(z, secondary) == 0) {
-            // Use a stronger filler value to avoid very dark pockets; keep at least 2.
-            int filler = Math.max(2, mc);
-            BlockState lightState = LIGHT_BASE.with(Properties.LEVEL_15, filler);
-            placer.placeBlock(x, ceilingY, z, lightState);
-        }
-    }
-
-    private int lightSpacing(int mcLight) {
-        // Prefer denser spacing for darker sectors to avoid large pitch-black gaps.
-        if (mcLight >= 14) return 10;
-        if (mcLight >= 12) return 8;
-        if (mcLight >= 10) return 6;
-        if (mcLight >= 8) return 5;
-        if (mcLight >= 6) return 4;
-        if (mcLight >= 4) return 3;
-        if (mcLight >= 2) return 2;
-        return 2;
-    }
-
     private int toRelativeBlockX(int doomX, int originBlockX) {
         return DoomToMCScale.toBlock(doomX) - originBlockX;
     }
@@ -263,14 +217,6 @@ public final class SectorRasterizer {
         return originBlockZ - DoomToMCScale.toBlock(doomY);
     }
 
-    private double toDoomX(int blockX, int originBlockX) {
-        return (blockX + originBlockX) * (double) DoomConstants.DOOM_TO_MC_SCALE + DoomConstants.DOOM_TO_MC_SCALE / 2.0;
-    }
-
-    private double toDoomZ(int blockZ, int originBlockZ) {
-        return (originBlockZ - blockZ) * (double) DoomConstants.DOOM_TO_MC_SCALE + DoomConstants.DOOM_TO_MC_SCALE / 2.0;
-    }
-
     @Deprecated(forRemoval = true)
     private int toRelativeBlock(int doomCoord, int originBlock) {
         return DoomToMCScale.toBlock(doomCoord) - originBlock;
@@ -281,76 +227,6 @@ public final class SectorRasterizer {
         return (blockCoord + originBlock) * (double) DoomConstants.DOOM_TO_MC_SCALE + DoomConstants.DOOM_TO_MC_SCALE / 2.0;
     }
 
-    private boolean containsPoint(List<Vertex> polygon, double x, double y) {
-        boolean inside = false;
-        for (int i = 0, j = polygon.size() - 1; i < polygon.size(); j = i++) {
-            Vertex vi = polygon.get(i);
-            Vertex vj = polygon.get(j);
-            boolean intersect = ((vi.y() > y) != (vj.y() > y))
-                && (x < (vj.x() - vi.x()) * (y - vi.y()) / (double) (vj.y() - vi.y()) + vi.x());
-            if (intersect) {
-                inside = !inside;
-            }
-        }
-        return inside;
-    }
-
-    private List<Vertex> buildSectorPolygon(DoomMap map, int sectorIndex) {
-        List<Edge> edges = collectSectorEdges(map, sectorIndex);
-        if (edges.isEmpty()) {
-            return List.of();
-        }
-        List<Edge> ordered = orderEdges(edges);
-        Vertex[] vertices = map.vertices();
-        List<Vertex> polygon = new ArrayList<>();
-        for (Edge edge : ordered) {
-            polygon.add(vertices[edge.start]);
-        }
-        return polygon;
-    }
-
-    private List<Edge> collectSectorEdges(DoomMap map, int sectorIndex) {
-        List<Edge> edges = new ArrayList<>();
-        Linedef[] linedefs = map.linedefs();
-        Sidedef[] sidedefs = map.sidedefs();
-        for (Linedef linedef : linedefs) {
-            int rightSector = getSectorFromSide(sidedefs, linedef.rightSidedef());
-            int leftSector = getSectorFromSide(sidedefs, linedef.leftSidedef());
-            if (rightSector == sectorIndex) {
-                edges.add(new Edge(linedef.startVertex(), linedef.endVertex()));
-            } else if (leftSector == sectorIndex) {
-                edges.add(new Edge(linedef.endVertex(), linedef.startVertex()));
-            }
-        }
-        return edges;
-    }
-
-    private List<Edge> orderEdges(List<Edge> edges) {
-        List<Edge> ordered = new ArrayList<>();
-        Set<Edge> used = new HashSet<>();
-        ordered.add(edges.get(0));
-        used.add(edges.get(0));
-        while (ordered.size() < edges.size()) {
-            Edge current = ordered.get(ordered.size() - 1);
-            Edge next = findNextEdge(edges, used, current.end);
-            if (next == null) {
-                break;
-            }
-            ordered.add(next);
-            used.add(next);
-        }
-        return ordered;
-    }
-
-    private Edge findNextEdge(List<Edge> edges, Set<Edge> used, int startVertex) {
-        for (Edge edge : edges) {
-            if (!used.contains(edge) && edge.start == startVertex) {
-                return edge;
-            }
-        }
-        return null;
-    }
-
     private int getSectorFromSide(Sidedef[] sidedefs, int sideIndex) {
         if (sideIndex < 0 || sideIndex >= sidedefs.length) {
             return -1;
@@ -358,16 +234,39 @@ public final class SectorRasterizer {
         return sidedefs[sideIndex].sector();
     }
 
-    private static final class Edge {
-        private final int start;
-        private final int end;
+    private final class SectorRangeTask extends RecursiveTask<VoxelBuffer> {
+        private final CompiledMap compiled;
+        private final PaletteMapper.Table palette;
+        private final int from;
+        private final int to;
+
+        SectorRangeTask(CompiledMap compiled, PaletteMapper.Table palette, int from, int to) {
+            this.compiled = compiled;
+            this.palette = palette;
+            this.from = from;
+            this.to = to;
+        }
 
-        private Edge(int start, int end) {
-            this.start = start;
-            this.end = end;
+        @Override
+        protected VoxelBuffer compute() {
+            if (to - from <= SECTORS_PER_TASK) {
+                VoxelBuffer out = new VoxelBuffer();
+                int originBlockX = compiled.origin().originBlockX();
+                int originBlockZ = compiled.origin().originBlockZ();
+                for (int sector = from; sector < to; sector++) {
+                    rasterizeSector(compiled, palette, sector, out, originBlockX, originBlockZ);
+                }
+                return out;
+            }
+            int mid = (from + to) >>> 1;
+            SectorRangeTask right = new SectorRangeTask(compiled, palette, mid, to);
+            right.fork();
+            VoxelBuffer out = new SectorRangeTask(compiled, palette, from, mid).compute();
+            out.append(right.join());
+            return out;
         }
     }
 
-    private record WallSlice(int startVertex, int endVertex, int neighborSector, Sidedef sidedef) {
+    private record WallSlice(int startVertex, int endVertex, int neighborSector, int sideIndex) {
     }
 }
@@ -0,0 +1,85 @@
+package com.hitpo.doommc3d.convert;
+
+import com.hitpo.doommc3d.worldgen.BlockPlacer;
+import java.util.Arrays;
+import net.minecraft.block.BlockState;
+
+/**
+ * Append-only list of block writes relative to the build origin, recorded off the server thread
+ * and replayed through a {@link BlockPlacer} later. Writes keep their order, so replaying a buffer
+ * gives the same world as placing the blocks directly.
+ */
+public final class VoxelBuffer {
+    private int[] xs;
+    private int[] ys;
+    private int[] zs;
+    private BlockState[] states;
+    private int size;
+
+    public VoxelBuffer() {
+        this(64);
+    }
+
+    public VoxelBuffer(int capacity) {
+        capacity = Math.max(1, capacity);
+        this.xs = new int[capacity];
+        this.ys = new int[capacity];
+        this.zs = new int[capacity];
+        this.states = new BlockState[capacity];
+    }
+
+    public void placeBlock(int x, int y, int z, BlockState state) {
+        ensureCapacity(size + 1);
+        xs[size] = x;
+        ys[size] = y;
+        zs[size] = z;
+        states[size++] = state;
+    }
+
+    public void placeColumn(int x, int z, int startY, int endY, BlockState state) {
+        int bottom = Math.min(startY, endY);
+        int top = Math.max(startY, endY);
+        ensureCapacity(size + top - bottom + 1);
+        for (int y = bottom; y <= top; y++) {
+            placeBlock(x, y, z, state);
+        }
+    }
+
+    /**
+     * Appends every write of {@code other} after this buffer's own.
+     */
+    public void append(VoxelBuffer other) {
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.xs, 0, xs, size, other.size);
+        System.arraycopy(other.ys, 0, ys, size, other.size);
+        System.arraycopy(other.zs, 0, zs, size, other.size);
+        System.arraycopy(other.states, 0, states, size, other.size);
+        size += other.size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Replays the writes in order. A placer backed by a {@link com.hitpo.doommc3d.worldgen.DoomVoxelGrid}
+     * touches only that grid, so this may run on the thread that owns the grid (the build worker);
+     * a write-through placer sets blocks in the world and must be replayed on the server thread.
+     */
+    public void applyTo(BlockPlacer placer) {
+        for (int i = 0; i < size; i++) {
+            placer.placeBlock(xs[i], ys[i], zs[i], states[i]);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= xs.length) {
+            return;
+        }
+        int grown = Math.max(capacity, xs.length * 2);
+        xs = Arrays.copyOf(xs, grown);
+        ys = Arrays.copyOf(ys, grown);
+        zs = Arrays.copyOf(zs, grown);
+        states = Arrays.copyOf(states, grown);
+    }
+}
@@ -605,6 +605,11 @@ public final class DoomMobBrain {
     private static boolean hasLineOfSight(ServerWorld world, LivingEntity from, Entity to) {
         Vec3d start = from.getEyePos();
         Vec3d end = to.getEyePos();
+        // Like P_CheckSight: sector pairs the REJECT table rules out never need a trace.
+        var graph = com.hitpo.doommc3d.interact.DoomSectorGraphRegistry.get(world);
+        if (graph != null && graph.rejectsSight(start, end)) {
+            return false;
+        }
         HitResult hit = world.raycast(new RaycastContext(
             start,
             end,
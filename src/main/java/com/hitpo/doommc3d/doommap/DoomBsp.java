@@ -0,0 +1,207 @@
+package com.hitpo.doommc3d.doommap;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The map's node tree (NODES, SSECTORS, SEGS) reduced to what point-to-sector lookup needs.
+ *
+ * {@link #pointInSubsector} is R_PointInSubsector: walk from the root choosing the side of each
+ * partition line, O(tree depth) instead of testing every sector polygon. Each subsector's sector
+ * is resolved once, from its first seg's linedef side.
+ */
+public final class DoomBsp {
+    private static final int NF_SUBSECTOR = 0x8000;
+
+    private final int[] nodeX;
+    private final int[] nodeY;
+    private final int[] nodeDx;
+    private final int[] nodeDy;
+    private final int[] nodeRight;
+    private final int[] nodeLeft;
+    private final int[] subsectorSector;
+
+    private DoomBsp(int[] nodeX, int[] nodeY, int[] nodeDx, int[] nodeDy, int[] nodeRight, int[] nodeLeft, int[] subsectorSector) {
+        this.nodeX = nodeX;
+        this.nodeY = nodeY;
+        this.nodeDx = nodeDx;
+        this.nodeDy = nodeDy;
+        this.nodeRight = nodeRight;
+        this.nodeLeft = nodeLeft;
+        this.subsectorSector = subsectorSector;
+    }
+
+    /**
+     * Decodes vanilla-format BSP lumps. Returns null if there are no subsectors, or the nodes are
+     * in an extended format (ZDoom XNOD/ZNOD, GL nodes) we don't read; callers then fall back to
+     * polygon tests.
+     */
+    public static DoomBsp read(ByteBuffer nodes, ByteBuffer ssectors, ByteBuffer segs, DoomMapData map) {
+        ByteBuffer n = nodes.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer ss = ssectors.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer sg = segs.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (ss.remaining() < 4 || n.remaining() % 28 != 0 || ss.remaining() % 4 != 0 || sg.remaining() % 12 != 0) {
+            return null;
+        }
+
+        int segCount = sg.remaining() / 12;
+        int[] segSector = new int[segCount];
+        for (int i = 0; i < segCount; i++) {
+            sg.getShort(); // v1
+            sg.getShort(); // v2
+            sg.getShort(); // angle
+            int line = sg.getShort() & 0xFFFF;
+            int side = sg.getShort();
+            sg.getShort(); // offset
+            segSector[i] = sectorOfLineSide(map, line, side);
+        }
+
+        int subsectorCount = ss.remaining() / 4;
+        int[] subsectorSector = new int[subsectorCount];
+        for (int i = 0; i < subsectorCount; i++) {
+            int numSegs = ss.getShort() & 0xFFFF;
+            int firstSeg = ss.getShort() & 0xFFFF;
+            int sector = -1;
+            for (int s = firstSeg; s < firstSeg + numSegs && s < segCount && sector < 0; s++) {
+                sector = segSector[s];
+            }
+            subsectorSector[i] = sector;
+        }
+
+        int nodeCount = n.remaining() / 28;
+        int[] x = new int[nodeCount];
+        int[] y = new int[nodeCount];
+        int[] dx = new int[nodeCount];
+        int[] dy = new int[nodeCount];
+        int[] right = new int[nodeCount];
+        int[] left = new int[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            x[i] = n.getShort();
+            y[i] = n.getShort();
+            dx[i] = n.getShort();
+            dy[i] = n.getShort();
+            n.position(n.position() + 16); // right and left bounding boxes
+            right[i] = n.getShort() & 0xFFFF;
+            left[i] = n.getShort() & 0xFFFF;
+            if (!validChild(right[i], nodeCount, subsectorCount) || !validChild(left[i], nodeCount, subsectorCount)) {
+                return null;
+            }
+        }
+        return new DoomBsp(x, y, dx, dy, right, left, subsectorSector);
+    }
+
+    /**
+     * Index of the subsector containing Doom point (x, y). Points outside the map land in whichever
+     * subsector borders them, as in the engine.
+     */
+    public int pointInSubsector(double x, double y) {
+        int nodeCount = nodeX.length;
+        if (nodeCount == 0) {
+            return 0;
+        }
+        int node = nodeCount - 1;
+        // A well-formed tree is walked in depth steps; the bound only guards against cyclic lumps.
+        for (int steps = 0; steps <= nodeCount; steps++) {
+            int child = onBackSide(node, x, y) ? nodeLeft[node] : nodeRight[node];
+            if ((child & NF_SUBSECTOR) != 0) {
+                return child & ~NF_SUBSECTOR;
+            }
+            node = child;
+        }
+        return 0;
+    }
+
+    /**
+     * Sector containing Doom point (x, y), or -1 if its subsector has no resolvable sector.
+     */
+    public int sectorAt(double x, double y) {
+        return subsectorSector[pointInSubsector(x, y)];
+    }
+
+    public int subsectorSector(int subsector) {
+        return subsectorSector[subsector];
+    }
+
+    public int subsectorCount() {
+        return subsectorSector.length;
+    }
+
+    public int nodeCount() {
+        return nodeX.length;
+    }
+
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(nodeX.length);
+        for (int i = 0; i < nodeX.length; i++) {
+            out.writeShort(nodeX[i]);
+            out.writeShort(nodeY[i]);
+            out.writeShort(nodeDx[i]);
+            out.writeShort(nodeDy[i]);
+            out.writeShort(nodeRight[i]);
+            out.writeShort(nodeLeft[i]);
+        }
+        out.writeInt(subsectorSector.length);
+        for (int sector : subsectorSector) {
+            out.writeInt(sector);
+        }
+    }
+
+    public static DoomBsp readFrom(ByteBuffer in) {
+        int nodeCount = in.getInt();
+        int[] x = new int[nodeCount];
+        int[] y = new int[nodeCount];
+        int[] dx = new int[nodeCount];
+        int[] dy = new int[nodeCount];
+        int[] right = new int[nodeCount];
+        int[] left = new int[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            x[i] = in.getShort();
+            y[i] = in.getShort();
+            dx[i] = in.getShort();
+            dy[i] = in.getShort();
+            right[i] = in.getShort() & 0xFFFF;
+            left[i] = in.getShort() & 0xFFFF;
+        }
+        int[] subsectorSector = new int[in.getInt()];
+        for (int i = 0; i < subsectorSector.length; i++) {
+            subsectorSector[i] = in.getInt();
+        }
+        return new DoomBsp(x, y, dx, dy, right, left, subsectorSector);
+    }
+
+    // R_PointOnSide: true for the back (left) side of the partition line.
+    private boolean onBackSide(int node, double x, double y) {
+        int dx = nodeDx[node];
+        int dy = nodeDy[node];
+        if (dx == 0) {
+            return x <= nodeX[node] ? dy > 0 : dy < 0;
+        }
+        if (dy == 0) {
+            return y <= nodeY[node] ? dx < 0 : dx > 0;
+        }
+        double left = dy * (x - nodeX[node]);
+        double right = (y - nodeY[node]) * dx;
+        return right >= left;
+    }
+
+    private static boolean validChild(int child, int nodeCount, int subsectorCount) {
+        if ((child & NF_SUBSECTOR) != 0) {
+            return (child & ~NF_SUBSECTOR) < subsectorCount;
+        }
+        return child < nodeCount;
+    }
+
+    private static int sectorOfLineSide(DoomMapData map, int line, int side) {
+        if (line >= map.linedefCount()) {
+            return -1;
+        }
+        int sidedef = side == 0 ? map.lineRight[line] : map.lineLeft[line];
+        if (sidedef < 0 || sidedef >= map.sidedefCount()) {
+            return -1;
+        }
+        int sector = map.sideSector[sidedef];
+        return sector >= 0 && sector < map.sectorCount() ? sector : -1;
+    }
+}
@@ -1,11 +1,16 @@
 package com.hitpo.doommc3d.doommap;
 
+/**
+ * Record view of a parsed map. {@link #data()} is the primitive-array form it was built from,
+ * with texture names interned as ids.
+ */
 public record DoomMap(
     String name,
     Vertex[] vertices,
     Linedef[] linedefs,
     Sidedef[] sidedefs,
     Sector[] sectors,
-    Thing[] things
+    Thing[] things,
+    DoomMapData data
 ) {
 }
@@ -0,0 +1,342 @@
+package com.hitpo.doommc3d.doommap;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Struct-of-arrays form of a Doom map: one primitive array per lump field instead of one record
+ * per element. Texture and flat names are ids into {@link #textures()}.
+ *
+ * {@link #toMap()} builds the record view ({@link DoomMap}) that most of the mod still uses;
+ * its texture Strings are shared from the dictionary rather than decoded per sidedef.
+ */
+public final class DoomMapData {
+    public final String name;
+
+    public final short[] vertexX;
+    public final short[] vertexY;
+
+    public final int[] lineStart;
+    public final int[] lineEnd;
+    public final int[] lineFlags;
+    public final int[] lineSpecial;
+    public final int[] lineTag;
+    public final int[] lineRight;
+    public final int[] lineLeft;
+
+    public final short[] sideXOffset;
+    public final short[] sideYOffset;
+    public final int[] sideUpper;
+    public final int[] sideLower;
+    public final int[] sideMiddle;
+    public final int[] sideSector;
+
+    public final short[] sectorFloor;
+    public final short[] sectorCeiling;
+    public final int[] sectorFloorTexture;
+    public final int[] sectorCeilingTexture;
+    public final short[] sectorLight;
+    public final short[] sectorType;
+    public final short[] sectorTag;
+
+    public final short[] thingX;
+    public final short[] thingY;
+    public final short[] thingAngle;
+    public final short[] thingType;
+    public final short[] thingFlags;
+
+    private final TextureDictionary textures;
+    private DoomBsp bsp;
+    private DoomReject reject;
+    private LinedefGrid blockmap;
+    private DoomMapTopology topology;
+
+    private DoomMapData(String name, int vertexCount, int lineCount, int sideCount, int sectorCount, int thingCount, TextureDictionary textures) {
+        this.name = name;
+        this.textures = textures;
+        vertexX = new short[vertexCount];
+        vertexY = new short[vertexCount];
+        lineStart = new int[lineCount];
+        lineEnd = new int[lineCount];
+        lineFlags = new int[lineCount];
+        lineSpecial = new int[lineCount];
+        lineTag = new int[lineCount];
+        lineRight = new int[lineCount];
+        lineLeft = new int[lineCount];
+        sideXOffset = new short[sideCount];
+        sideYOffset = new short[sideCount];
+        sideUpper = new int[sideCount];
+        sideLower = new int[sideCount];
+        sideMiddle = new int[sideCount];
+        sideSector = new int[sideCount];
+        sectorFloor = new short[sectorCount];
+        sectorCeiling = new short[sectorCount];
+        sectorFloorTexture = new int[sectorCount];
+        sectorCeilingTexture = new int[sectorCount];
+        sectorLight = new short[sectorCount];
+        sectorType = new short[sectorCount];
+        sectorTag = new short[sectorCount];
+        thingX = new short[thingCount];
+        thingY = new short[thingCount];
+        thingAngle = new short[thingCount];
+        thingType = new short[thingCount];
+        thingFlags = new short[thingCount];
+    }
+
+    /**
+     * Decodes the geometry, thing, BSP, REJECT and BLOCKMAP lumps. Buffers are read from their current
+     * position and left untouched; missing node-builder lumps leave {@link #bsp()} / {@link #reject()}
+     * null, while a missing BLOCKMAP is rebuilt from the linedefs.
+     */
+    public static DoomMapData read(String name, ByteBuffer vertexes, ByteBuffer linedefs, ByteBuffer sidedefs, ByteBuffer sectors, ByteBuffer things,
+                                   ByteBuffer segs, ByteBuffer ssectors, ByteBuffer nodes, ByteBuffer reject, ByteBuffer blockmap) {
+        ByteBuffer v = vertexes.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer l = linedefs.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer sd = sidedefs.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer sc = sectors.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer t = things.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        DoomMapData map = new DoomMapData(name, v.remaining() / 4, l.remaining() / 14, sd.remaining() / 30,
+            sc.remaining() / 26, t.remaining() / 10, new TextureDictionary());
+        TextureDictionary dict = map.textures;
+
+        for (int i = 0; i < map.vertexX.length; i++) {
+            map.vertexX[i] = v.getShort();
+            map.vertexY[i] = v.getShort();
+        }
+        for (int i = 0; i < map.lineStart.length; i++) {
+            map.lineStart[i] = l.getShort();
+            map.lineEnd[i] = l.getShort();
+            map.lineFlags[i] = l.getShort();
+            map.lineSpecial[i] = l.getShort();
+            map.lineTag[i] = l.getShort();
+            map.lineRight[i] = l.getShort();
+            map.lineLeft[i] = l.getShort();
+        }
+        for (int i = 0; i < map.sideSector.length; i++) {
+            map.sideXOffset[i] = sd.getShort();
+            map.sideYOffset[i] = sd.getShort();
+            map.sideUpper[i] = dict.intern(sd.getLong());
+            map.sideLower[i] = dict.intern(sd.getLong());
+            map.sideMiddle[i] = dict.intern(sd.getLong());
+            map.sideSector[i] = sd.getShort();
+        }
+        for (int i = 0; i < map.sectorFloor.length; i++) {
+            map.sectorFloor[i] = sc.getShort();
+            map.sectorCeiling[i] = sc.getShort();
+            map.sectorFloorTexture[i] = dict.intern(sc.getLong());
+            map.sectorCeilingTexture[i] = dict.intern(sc.getLong());
+            map.sectorLight[i] = sc.getShort();
+            map.sectorType[i] = sc.getShort();
+            map.sectorTag[i] = sc.getShort();
+        }
+        for (int i = 0; i < map.thingX.length; i++) {
+            map.thingX[i] = t.getShort();
+            map.thingY[i] = t.getShort();
+            map.thingAngle[i] = t.getShort();
+            map.thingType[i] = t.getShort();
+            map.thingFlags[i] = t.getShort();
+        }
+        map.bsp = DoomBsp.read(nodes, ssectors, segs, map);
+        map.reject = DoomReject.read(reject, map.sectorCount());
+        map.blockmap = LinedefGrid.read(blockmap, map);
+        map.topology = DoomMapTopology.build(map);
+        return map;
+    }
+
+    /**
+     * Writes the arrays and texture keys in the layout {@link #readFrom} expects.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeUTF(name);
+        out.writeInt(vertexCount());
+        out.writeInt(linedefCount());
+        out.writeInt(sidedefCount());
+        out.writeInt(sectorCount());
+        out.writeInt(thingCount());
+        out.writeInt(textures.size());
+        for (int id = 0; id < textures.size(); id++) {
+            out.writeLong(textures.key(id));
+        }
+        writeShorts(out, vertexX, vertexY);
+        writeInts(out, lineStart, lineEnd, lineFlags, lineSpecial, lineTag, lineRight, lineLeft);
+        writeShorts(out, sideXOffset, sideYOffset);
+        writeInts(out, sideUpper, sideLower, sideMiddle, sideSector);
+        writeShorts(out, sectorFloor, sectorCeiling);
+        writeInts(out, sectorFloorTexture, sectorCeilingTexture);
+        writeShorts(out, sectorLight, sectorType, sectorTag);
+        writeShorts(out, thingX, thingY, thingAngle, thingType, thingFlags);
+        out.writeBoolean(bsp != null);
+        if (bsp != null) {
+            bsp.writeTo(out);
+        }
+        out.writeBoolean(reject != null);
+        if (reject != null) {
+            reject.writeTo(out);
+        }
+        blockmap.writeTo(out);
+    }
+
+    /**
+     * Reads what {@link #writeTo} wrote, advancing {@code in} past it. Big-endian, as DataOutput writes.
+     */
+    public static DoomMapData readFrom(ByteBuffer in) {
+        String name = readUtf(in);
+        int vertexCount = in.getInt();
+        int lineCount = in.getInt();
+        int sideCount = in.getInt();
+        int sectorCount = in.getInt();
+        int thingCount = in.getInt();
+        int textureCount = in.getInt();
+        TextureDictionary dict = new TextureDictionary();
+        for (int id = 0; id < textureCount; id++) {
+            if (dict.intern(in.getLong()) != id) {
+                throw new IllegalArgumentException("Corrupt texture table in compiled map " + name);
+            }
+        }
+        DoomMapData map = new DoomMapData(name, vertexCount, lineCount, sideCount, sectorCount, thingCount, dict);
+        readShorts(in, map.vertexX, map.vertexY);
+        readInts(in, map.lineStart, map.lineEnd, map.lineFlags, map.lineSpecial, map.lineTag, map.lineRight, map.lineLeft);
+        readShorts(in, map.sideXOffset, map.sideYOffset);
+        readInts(in, map.sideUpper, map.sideLower, map.sideMiddle, map.sideSector);
+        readShorts(in, map.sectorFloor, map.sectorCeiling);
+        readInts(in, map.sectorFloorTexture, map.sectorCeilingTexture);
+        readShorts(in, map.sectorLight, map.sectorType, map.sectorTag);
+        readShorts(in, map.thingX, map.thingY, map.thingAngle, map.thingType, map.thingFlags);
+        if (in.get() != 0) {
+            map.bsp = DoomBsp.readFrom(in);
+        }
+        if (in.get() != 0) {
+            map.reject = DoomReject.readFrom(in);
+        }
+        map.blockmap = LinedefGrid.readFrom(in);
+        map.topology = DoomMapTopology.build(map);
+        return map;
+    }
+
+    public TextureDictionary textures() {
+        return textures;
+    }
+
+    /**
+     * The node tree, or null if the map has none in a format we read.
+     */
+    public DoomBsp bsp() {
+        return bsp;
+    }
+
+    /**
+     * The sector-to-sector sight table, or null if the map has no usable REJECT lump.
+     */
+    public DoomReject reject() {
+        return reject;
+    }
+
+    /**
+     * Sector adjacency and outlines, built once when the map was read.
+     */
+    public DoomMapTopology topology() {
+        return topology;
+    }
+
+    /**
+     * Linedef grid for candidate queries (BLOCKMAP, or one synthesized from the linedefs). Never null.
+     */
+    public LinedefGrid blockmap() {
+        return blockmap;
+    }
+
+    /**
+     * Sector containing Doom point (x, y) via the node tree, or -1 if there is no usable tree
+     * (or the point's subsector has no sector). Callers fall back to polygon tests on -1.
+     */
+    public int sectorAt(double x, double y) {
+        return bsp == null ? -1 : bsp.sectorAt(x, y);
+    }
+
+    public int vertexCount() {
+        return vertexX.length;
+    }
+
+    public int linedefCount() {
+        return lineStart.length;
+    }
+
+    public int sidedefCount() {
+        return sideSector.length;
+    }
+
+    public int sectorCount() {
+        return sectorFloor.length;
+    }
+
+    public int thingCount() {
+        return thingX.length;
+    }
+
+    /**
+     * Builds the record view. Each call allocates fresh arrays; callers should keep the result.
+     */
+    public DoomMap toMap() {
+        Vertex[] vertices = new Vertex[vertexCount()];
+        for (int i = 0; i < vertices.length; i++) {
+            vertices[i] = new Vertex(vertexX[i], vertexY[i]);
+        }
+        Linedef[] linedefs = new Linedef[linedefCount()];
+        for (int i = 0; i < linedefs.length; i++) {
+            linedefs[i] = new Linedef(lineStart[i], lineEnd[i], lineFlags[i], lineSpecial[i], lineTag[i], lineRight[i], lineLeft[i]);
+        }
+        Sidedef[] sidedefs = new Sidedef[sidedefCount()];
+        for (int i = 0; i < sidedefs.length; i++) {
+            sidedefs[i] = new Sidedef(sideXOffset[i], sideYOffset[i], textures.name(sideUpper[i]),
+                textures.name(sideLower[i]), textures.name(sideMiddle[i]), sideSector[i]);
+        }
+        Sector[] sectors = new Sector[sectorCount()];
+        for (int i = 0; i < sectors.length; i++) {
+            sectors[i] = new Sector(sectorFloor[i], sectorCeiling[i], textures.name(sectorFloorTexture[i]),
+                textures.name(sectorCeilingTexture[i]), sectorLight[i], sectorType[i], sectorTag[i]);
+        }
+        Thing[] things = new Thing[thingCount()];
+        for (int i = 0; i < things.length; i++) {
+            things[i] = new Thing(thingX[i], thingY[i], thingAngle[i], thingType[i], thingFlags[i]);
+        }
+        return new DoomMap(name, vertices, linedefs, sidedefs, sectors, things, this);
+    }
+
+    private static void writeShorts(DataOutput out, short[]... arrays) throws IOException {
+        for (short[] array : arrays) {
+            for (short value : array) {
+                out.writeShort(value);
+            }
+        }
+    }
+
+    private static void writeInts(DataOutput out, int[]... arrays) throws IOException {
+        for (int[] array : arrays) {
+            for (int value : array) {
+                out.writeInt(value);
+            }
+        }
+    }
+
+    private static void readShorts(ByteBuffer in, short[]... arrays) {
+        for (short[] array : arrays) {
+            in.asShortBuffer().get(array);
+            in.position(in.position() + array.length * 2);
+        }
+    }
+
+    private static void readInts(ByteBuffer in, int[]... arrays) {
+        for (int[] array : arrays) {
+            in.asIntBuffer().get(array);
+            in.position(in.position() + array.length * 4);
+        }
+    }
+
+    private static String readUtf(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort() & 0xFFFF];
+        in.get(bytes);
+        return new String(bytes, java.nio.charset.StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,309 @@
+package com.hitpo.doommc3d.doommap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Sector/linedef/vertex adjacency for a map, built once in O(lines + vertices) when the map is
+ * read (see {@link DoomMapData#topology()}), so build stages stop rescanning every linedef per sector.
+ *
+ * Each linedef contributes a half-edge per distinct sector it borders, directed so the sector is on
+ * its right: start to end for the right side, end to start for the left. Half-edges are indexed by
+ * sector and by start vertex, and every half-edge of a sector is chained into a loop through the
+ * vertex index. Walking with the sector on the right makes outer boundaries clockwise and holes
+ * (pillars, islands of other sectors) counter-clockwise; containment is even-odd over all loops.
+ */
+public final class DoomMapTopology {
+    private static final int[][] NO_LOOPS = new int[0][];
+
+    private final DoomMapData data;
+    private final int[][] sectorLines;
+    private final boolean[][] sectorHoleLines;
+    private final int[][][] sectorLoops;
+    private final boolean[][] sectorLoopHoles;
+    private final int[] sectorOuterLoop;
+    private final int[] enclosingSector;
+    private final List<List<Vertex>> sectorPolygonVertices;
+
+    private DoomMapTopology(DoomMapData data, int[][] sectorLines, boolean[][] sectorHoleLines, int[][][] sectorLoops,
+                            boolean[][] sectorLoopHoles, int[] sectorOuterLoop, int[] enclosingSector) {
+        this.data = data;
+        this.sectorLines = sectorLines;
+        this.sectorHoleLines = sectorHoleLines;
+        this.sectorLoops = sectorLoops;
+        this.sectorLoopHoles = sectorLoopHoles;
+        this.sectorOuterLoop = sectorOuterLoop;
+        this.enclosingSector = enclosingSector;
+        List<List<Vertex>> vertices = new ArrayList<>(sectorLoops.length);
+        for (int sector = 0; sector < sectorLoops.length; sector++) {
+            int[] polygon = sectorPolygon(sector);
+            Vertex[] loop = new Vertex[polygon.length];
+            for (int i = 0; i < polygon.length; i++) {
+                loop[i] = new Vertex(data.vertexX[polygon[i]], data.vertexY[polygon[i]]);
+            }
+            vertices.add(List.of(loop));
+        }
+        this.sectorPolygonVertices = vertices;
+    }
+
+    static DoomMapTopology build(DoomMapData data) {
+        int lineCount = data.linedefCount();
+        int sectorCount = data.sectorCount();
+        int vertexCount = data.vertexCount();
+
+        // Half-edges in line order, right side before left.
+        int[] halfLine = new int[lineCount * 2];
+        int[] halfSector = new int[lineCount * 2];
+        int[] halfOther = new int[lineCount * 2];
+        int[] halfStart = new int[lineCount * 2];
+        int[] halfEnd = new int[lineCount * 2];
+        int halfCount = 0;
+        for (int line = 0; line < lineCount; line++) {
+            int start = data.lineStart[line];
+            int end = data.lineEnd[line];
+            if (start < 0 || end < 0 || start >= vertexCount || end >= vertexCount) {
+                continue;
+            }
+            int right = sectorOfSide(data, data.lineRight[line]);
+            int left = sectorOfSide(data, data.lineLeft[line]);
+            if (right >= 0) {
+                halfLine[halfCount] = line;
+                halfSector[halfCount] = right;
+                halfOther[halfCount] = left;
+                halfStart[halfCount] = start;
+                halfEnd[halfCount++] = end;
+            }
+            if (left >= 0 && left != right) {
+                halfLine[halfCount] = line;
+                halfSector[halfCount] = left;
+                halfOther[halfCount] = right;
+                halfStart[halfCount] = end;
+                halfEnd[halfCount++] = start;
+            }
+        }
+
+        int[] bySector = groupBy(halfSector, halfCount, sectorCount);
+        int[] sectorOffsets = offsets(halfSector, halfCount, sectorCount);
+        int[] byVertex = groupBy(halfStart, halfCount, vertexCount);
+        int[] vertexOffsets = offsets(halfStart, halfCount, vertexCount);
+
+        int[][] sectorLines = new int[sectorCount][];
+        boolean[][] sectorHoleLines = new boolean[sectorCount][];
+        int[][][] sectorLoops = new int[sectorCount][][];
+        boolean[][] sectorLoopHoles = new boolean[sectorCount][];
+        int[] sectorOuterLoop = new int[sectorCount];
+        int[] enclosingSector = new int[sectorCount];
+        Arrays.fill(enclosingSector, -1);
+        boolean[] used = new boolean[halfCount];
+        int[] loopEdges = new int[halfCount];
+        for (int sector = 0; sector < sectorCount; sector++) {
+            int from = sectorOffsets[sector];
+            int to = sectorOffsets[sector + 1];
+            int[] lines = new int[to - from];
+            for (int i = from; i < to; i++) {
+                lines[i - from] = halfLine[bySector[i]];
+            }
+            sectorLines[sector] = lines;
+            sectorHoleLines[sector] = new boolean[lines.length];
+
+            // Chain every half-edge: start a loop at the first unused one, and at each vertex take the
+            // first unused outgoing half-edge of this sector until the loop closes or runs out (an
+            // unclosed chain is kept and treated as implicitly closed, as the outline always was).
+            List<int[]> loops = new ArrayList<>();
+            List<Boolean> holes = new ArrayList<>();
+            int outer = 0;
+            long outerArea = -1;
+            for (int first = from; first < to; first++) {
+                if (used[bySector[first]]) {
+                    continue;
+                }
+                int size = 0;
+                int current = bySector[first];
+                int loopStart = halfStart[current];
+                while (current >= 0) {
+                    used[current] = true;
+                    loopEdges[size++] = current;
+                    int vertex = halfEnd[current];
+                    if (vertex == loopStart) {
+                        break;
+                    }
+                    int next = -1;
+                    for (int i = vertexOffsets[vertex]; i < vertexOffsets[vertex + 1]; i++) {
+                        int candidate = byVertex[i];
+                        if (!used[candidate] && halfSector[candidate] == sector) {
+                            next = candidate;
+                            break;
+                        }
+                    }
+                    current = next;
+                }
+
+                int[] loop = new int[size];
+                long area2 = 0;
+                for (int i = 0; i < size; i++) {
+                    loop[i] = halfStart[loopEdges[i]];
+                }
+                for (int i = 0, j = size - 1; i < size; j = i++) {
+                    area2 += (long) data.vertexX[loop[j]] * data.vertexY[loop[i]] - (long) data.vertexX[loop[i]] * data.vertexY[loop[j]];
+                }
+                boolean hole = area2 > 0;
+                if (!hole && -area2 > outerArea) {
+                    outerArea = -area2;
+                    outer = loops.size();
+                }
+                if (hole) {
+                    int other = halfOther[loopEdges[0]];
+                    for (int i = 0; i < size; i++) {
+                        int edge = loopEdges[i];
+                        sectorHoleLines[sector][Arrays.binarySearch(lines, halfLine[edge])] = true;
+                        if (halfOther[edge] != other) {
+                            other = -1;
+                        }
+                    }
+                    // A hole bounded entirely by one other sector means that sector is an island in this one.
+                    if (other >= 0 && other != sector) {
+                        enclosingSector[other] = sector;
+                    }
+                }
+                loops.add(loop);
+                holes.add(hole);
+            }
+            sectorLoops[sector] = loops.isEmpty() ? NO_LOOPS : loops.toArray(new int[0][]);
+            sectorLoopHoles[sector] = new boolean[loops.size()];
+            for (int i = 0; i < loops.size(); i++) {
+                sectorLoopHoles[sector][i] = holes.get(i);
+            }
+            sectorOuterLoop[sector] = outer;
+        }
+        return new DoomMapTopology(data, sectorLines, sectorHoleLines, sectorLoops, sectorLoopHoles, sectorOuterLoop, enclosingSector);
+    }
+
+    public int sectorCount() {
+        return sectorLines.length;
+    }
+
+    /**
+     * Linedefs with a side in the sector, ascending. Callers must not modify the array.
+     */
+    public int[] sectorLines(int sector) {
+        return sectorLines[sector];
+    }
+
+    /**
+     * Vertex indices of the sector's largest outer loop, in edge order; empty if the sector has no
+     * lines. Use {@link #sectorLoops} where holes matter. Callers must not modify the array.
+     */
+    public int[] sectorPolygon(int sector) {
+        int[][] loops = sectorLoops[sector];
+        return loops.length == 0 ? new int[0] : loops[sectorOuterLoop[sector]];
+    }
+
+    public List<Vertex> sectorPolygonVertices(int sector) {
+        return sectorPolygonVertices.get(sector);
+    }
+
+    /**
+     * Every boundary loop of the sector as vertex indices in edge order: outer boundaries clockwise,
+     * holes counter-clockwise. Callers must not modify the arrays.
+     */
+    public int[][] sectorLoops(int sector) {
+        return sectorLoops[sector];
+    }
+
+    public boolean isHoleLoop(int sector, int loop) {
+        return sectorLoopHoles[sector][loop];
+    }
+
+    /**
+     * True if {@code line} bounds a hole in the sector (the outside of a pillar or island).
+     */
+    public boolean isHoleLine(int sector, int line) {
+        int index = Arrays.binarySearch(sectorLines[sector], line);
+        return index >= 0 && sectorHoleLines[sector][index];
+    }
+
+    /**
+     * The sector this one sits in as an island (its whole outline is a hole of that sector), or -1.
+     */
+    public int enclosingSector(int sector) {
+        return enclosingSector[sector];
+    }
+
+    /**
+     * Even-odd ray test of Doom point (x, y) against every loop of the sector, so points inside a
+     * hole are outside the sector.
+     */
+    public boolean containsPoint(int sector, double x, double y) {
+        boolean inside = false;
+        for (int[] loop : sectorLoops[sector]) {
+            for (int i = 0, j = loop.length - 1; i < loop.length; j = i++) {
+                int xi = data.vertexX[loop[i]];
+                int yi = data.vertexY[loop[i]];
+                int xj = data.vertexX[loop[j]];
+                int yj = data.vertexY[loop[j]];
+                boolean intersect = ((yi > y) != (yj > y))
+                    && (x < (xj - xi) * (y - yi) / (double) (yj - yi) + xi);
+                if (intersect) {
+                    inside = !inside;
+                }
+            }
+        }
+        return inside;
+    }
+
+    /**
+     * Sector containing Doom point (x, y): the node tree when the map has one, otherwise the first
+     * sector whose loops contain it. -1 if none does.
+     */
+    public int sectorAt(double x, double y) {
+        int bspSector = data.sectorAt(x, y);
+        if (bspSector >= 0) {
+            return bspSector;
+        }
+        for (int sector = 0; sector < sectorLoops.length; sector++) {
+            if (sectorLoops[sector].length > 0 && containsPoint(sector, x, y)) {
+                return sector;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Sector on the other side of {@code line} from {@code sector}, or -1 for one-sided lines.
+     */
+    public int neighborAcross(int line, int sector) {
+        int right = sectorOfSide(data, data.lineRight[line]);
+        int left = sectorOfSide(data, data.lineLeft[line]);
+        return right == sector ? left : right;
+    }
+
+    // Indices 0..count-1 stably ordered by key (counting sort).
+    private static int[] groupBy(int[] keys, int count, int keyCount) {
+        int[] next = offsets(keys, count, keyCount);
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[next[keys[i]]++] = i;
+        }
+        return order;
+    }
+
+    private static int[] offsets(int[] keys, int count, int keyCount) {
+        int[] offsets = new int[keyCount + 1];
+        for (int i = 0; i < count; i++) {
+            offsets[keys[i] + 1]++;
+        }
+        for (int k = 0; k < keyCount; k++) {
+            offsets[k + 1] += offsets[k];
+        }
+        return offsets;
+    }
+
+    private static int sectorOfSide(DoomMapData data, int side) {
+        if (side < 0 || side >= data.sidedefCount()) {
+            return -1;
+        }
+        int sector = data.sideSector[side];
+        return sector >= 0 && sector < data.sectorCount() ? sector : -1;
+    }
+}
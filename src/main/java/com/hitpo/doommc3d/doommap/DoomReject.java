@@ -0,0 +1,72 @@
+package com.hitpo.doommc3d.doommap;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The REJECT lump as a bitset: bit {@code from * sectorCount + to} set means no point in sector
+ * {@code from} can see any point in sector {@code to}, so sight checks between them can be skipped
+ * without tracing (P_CheckSight's first test).
+ */
+public final class DoomReject {
+    private final int sectorCount;
+    private final long[] bits;
+
+    private DoomReject(int sectorCount, long[] bits) {
+        this.sectorCount = sectorCount;
+        this.bits = bits;
+    }
+
+    /**
+     * Returns null when the lump is too short to cover every sector pair; some node builders
+     * write it empty, and a truncated table can't be trusted.
+     */
+    public static DoomReject read(ByteBuffer reject, int sectorCount) {
+        long pairs = (long) sectorCount * sectorCount;
+        ByteBuffer view = reject.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (sectorCount == 0 || view.remaining() < (pairs + 7) / 8 || pairs > Integer.MAX_VALUE) {
+            return null;
+        }
+        // REJECT packs bits LSB-first per byte, which is the same order as little-endian longs.
+        long[] bits = new long[(int) ((pairs + 63) >>> 6)];
+        int byteCount = (int) ((pairs + 7) / 8);
+        for (int i = 0; i < byteCount; i++) {
+            bits[i >>> 3] |= (view.get() & 0xFFL) << ((i & 7) * 8);
+        }
+        return new DoomReject(sectorCount, bits);
+    }
+
+    public boolean isRejected(int fromSector, int toSector) {
+        if (fromSector < 0 || toSector < 0 || fromSector >= sectorCount || toSector >= sectorCount) {
+            return false;
+        }
+        long bit = (long) fromSector * sectorCount + toSector;
+        return (bits[(int) (bit >>> 6)] & (1L << bit)) != 0;
+    }
+
+    public int rejectedPairCount() {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(sectorCount);
+        out.writeInt(bits.length);
+        for (long word : bits) {
+            out.writeLong(word);
+        }
+    }
+
+    public static DoomReject readFrom(ByteBuffer in) {
+        int sectorCount = in.getInt();
+        long[] bits = new long[in.getInt()];
+        in.asLongBuffer().get(bits);
+        in.position(in.position() + bits.length * 8);
+        return new DoomReject(sectorCount, bits);
+    }
+}
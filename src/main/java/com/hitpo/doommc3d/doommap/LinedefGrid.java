@@ -0,0 +1,294 @@
+package com.hitpo.doommc3d.doommap;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Uniform grid of linedef indices in Doom coordinates: the BLOCKMAP lump, or an equivalent
+ * 128-unit grid built from the linedefs when the lump is missing or malformed.
+ *
+ * Queries return candidates only (every line touching a visited cell, sorted and de-duplicated);
+ * callers still run their exact segment test on each.
+ */
+public final class LinedefGrid {
+    public static final int CELL_SIZE = 128;
+
+    private final int originX;
+    private final int originY;
+    private final int columns;
+    private final int rows;
+    // CSR layout: lines of cell c are cellLines[cellStart[c] .. cellStart[c + 1]).
+    private final int[] cellStart;
+    private final int[] cellLines;
+
+    private LinedefGrid(int originX, int originY, int columns, int rows, int[] cellStart, int[] cellLines) {
+        this.originX = originX;
+        this.originY = originY;
+        this.columns = columns;
+        this.rows = rows;
+        this.cellStart = cellStart;
+        this.cellLines = cellLines;
+    }
+
+    /**
+     * Reads BLOCKMAP, falling back to {@link #synthesize} if it is absent or doesn't fit the map.
+     */
+    public static LinedefGrid read(ByteBuffer blockmap, DoomMapData map) {
+        LinedefGrid grid = parseBlockmap(blockmap, map.linedefCount());
+        return grid != null ? grid : synthesize(map);
+    }
+
+    /**
+     * Builds the grid the way a node builder lays out BLOCKMAP: 128-unit cells from the
+     * lower-left vertex (less 8 units), each line listed in every cell it passes through.
+     */
+    public static LinedefGrid synthesize(DoomMapData map) {
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        for (int i = 0; i < map.vertexCount(); i++) {
+            minX = Math.min(minX, map.vertexX[i]);
+            minY = Math.min(minY, map.vertexY[i]);
+            maxX = Math.max(maxX, map.vertexX[i]);
+            maxY = Math.max(maxY, map.vertexY[i]);
+        }
+        if (minX > maxX) {
+            return new LinedefGrid(0, 0, 1, 1, new int[2], new int[0]);
+        }
+        int originX = minX - 8;
+        int originY = minY - 8;
+        int columns = (maxX - originX) / CELL_SIZE + 1;
+        int rows = (maxY - originY) / CELL_SIZE + 1;
+
+        int cellCount = columns * rows;
+        IntList[] cells = new IntList[cellCount];
+        LinedefGrid shape = new LinedefGrid(originX, originY, columns, rows, null, null);
+        for (int line = 0; line < map.linedefCount(); line++) {
+            int start = map.lineStart[line];
+            int end = map.lineEnd[line];
+            if (start < 0 || end < 0 || start >= map.vertexCount() || end >= map.vertexCount()) {
+                continue;
+            }
+            final int lineIndex = line;
+            shape.visitSegmentCells(map.vertexX[start], map.vertexY[start], map.vertexX[end], map.vertexY[end], 0, cell -> {
+                if (cells[cell] == null) {
+                    cells[cell] = new IntList();
+                }
+                cells[cell].add(lineIndex);
+            });
+        }
+
+        int[] cellStart = new int[cellCount + 1];
+        int total = 0;
+        for (int c = 0; c < cellCount; c++) {
+            cellStart[c] = total;
+            total += cells[c] == null ? 0 : cells[c].size;
+        }
+        cellStart[cellCount] = total;
+        int[] cellLines = new int[total];
+        for (int c = 0; c < cellCount; c++) {
+            if (cells[c] != null) {
+                System.arraycopy(cells[c].values, 0, cellLines, cellStart[c], cells[c].size);
+            }
+        }
+        return new LinedefGrid(originX, originY, columns, rows, cellStart, cellLines);
+    }
+
+    /**
+     * Linedefs in cells crossed by the segment (x1,y1)-(x2,y2), plus any cell within {@code padding}
+     * map units of it.
+     */
+    public int[] linesAlongSegment(double x1, double y1, double x2, double y2, double padding) {
+        IntList out = new IntList();
+        visitSegmentCells(x1, y1, x2, y2, padding, cell -> appendCell(cell, out));
+        return out.sortedUnique();
+    }
+
+    /**
+     * Linedefs in cells overlapping the box [minX, maxX] x [minY, maxY].
+     */
+    public int[] linesInBox(double minX, double minY, double maxX, double maxY) {
+        IntList out = new IntList();
+        int c0 = clampColumn(columnOf(minX));
+        int c1 = clampColumn(columnOf(maxX));
+        int r0 = clampRow(rowOf(minY));
+        int r1 = clampRow(rowOf(maxY));
+        if (columnOf(maxX) < 0 || rowOf(maxY) < 0 || columnOf(minX) >= columns || rowOf(minY) >= rows) {
+            return new int[0];
+        }
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                appendCell(r * columns + c, out);
+            }
+        }
+        return out.sortedUnique();
+    }
+
+    public int columns() {
+        return columns;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(originX);
+        out.writeInt(originY);
+        out.writeInt(columns);
+        out.writeInt(rows);
+        out.writeInt(cellLines.length);
+        for (int start : cellStart) {
+            out.writeInt(start);
+        }
+        for (int line : cellLines) {
+            out.writeInt(line);
+        }
+    }
+
+    public static LinedefGrid readFrom(ByteBuffer in) {
+        int originX = in.getInt();
+        int originY = in.getInt();
+        int columns = in.getInt();
+        int rows = in.getInt();
+        int[] cellLines = new int[in.getInt()];
+        int[] cellStart = new int[columns * rows + 1];
+        in.asIntBuffer().get(cellStart);
+        in.position(in.position() + cellStart.length * 4);
+        in.asIntBuffer().get(cellLines);
+        in.position(in.position() + cellLines.length * 4);
+        return new LinedefGrid(originX, originY, columns, rows, cellStart, cellLines);
+    }
+
+    private static LinedefGrid parseBlockmap(ByteBuffer blockmap, int lineCount) {
+        ByteBuffer view = blockmap.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int base = view.position();
+        int words = view.remaining() / 2;
+        if (words < 4) {
+            return null;
+        }
+        int originX = view.getShort();
+        int originY = view.getShort();
+        int columns = view.getShort() & 0xFFFF;
+        int rows = view.getShort() & 0xFFFF;
+        int cellCount = columns * rows;
+        if (cellCount == 0 || 4 + cellCount > words) {
+            return null;
+        }
+
+        int[] cellStart = new int[cellCount + 1];
+        IntList lines = new IntList();
+        for (int c = 0; c < cellCount; c++) {
+            // Offsets are unsigned word indices from the lump start.
+            int offset = view.getShort(base + (4 + c) * 2) & 0xFFFF;
+            if (offset >= words) {
+                return null;
+            }
+            cellStart[c] = lines.size;
+            for (int w = offset; w < words; w++) {
+                int line = view.getShort(base + w * 2) & 0xFFFF;
+                if (line == 0xFFFF) {
+                    break;
+                }
+                // Every vanilla list starts with a 0 entry; keeping it only adds line 0 as a candidate.
+                if (line < lineCount) {
+                    lines.add(line);
+                }
+            }
+        }
+        cellStart[cellCount] = lines.size;
+        return new LinedefGrid(originX, originY, columns, rows, cellStart, Arrays.copyOf(lines.values, lines.size));
+    }
+
+    /**
+     * Visits every in-grid cell the segment touches (column by column, taking the segment's
+     * y-span inside each column), grown by {@code padding} units on all sides. Cells may repeat.
+     */
+    private void visitSegmentCells(double x1, double y1, double x2, double y2, double padding, IntConsumer visitor) {
+        if (x1 > x2) {
+            double tx = x1;
+            double ty = y1;
+            x1 = x2;
+            y1 = y2;
+            x2 = tx;
+            y2 = ty;
+        }
+        int c0 = columnOf(x1 - padding);
+        int c1 = columnOf(x2 + padding);
+        double dx = x2 - x1;
+        for (int c = Math.max(0, c0); c <= Math.min(columns - 1, c1); c++) {
+            double colMin = originX + (double) c * CELL_SIZE - padding;
+            double colMax = colMin + CELL_SIZE + 2 * padding;
+            double ya;
+            double yb;
+            if (dx == 0) {
+                ya = y1;
+                yb = y2;
+            } else {
+                double ta = Math.max(0.0, (colMin - x1) / dx);
+                double tb = Math.min(1.0, (colMax - x1) / dx);
+                if (ta > tb) {
+                    continue;
+                }
+                ya = y1 + (y2 - y1) * ta;
+                yb = y1 + (y2 - y1) * tb;
+            }
+            int r0 = rowOf(Math.min(ya, yb) - padding);
+            int r1 = rowOf(Math.max(ya, yb) + padding);
+            for (int r = Math.max(0, r0); r <= Math.min(rows - 1, r1); r++) {
+                visitor.accept(r * columns + c);
+            }
+        }
+    }
+
+    private void appendCell(int cell, IntList out) {
+        for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+            out.add(cellLines[i]);
+        }
+    }
+
+    private int columnOf(double x) {
+        return (int) Math.floor((x - originX) / CELL_SIZE);
+    }
+
+    private int rowOf(double y) {
+        return (int) Math.floor((y - originY) / CELL_SIZE);
+    }
+
+    private int clampColumn(int c) {
+        return Math.max(0, Math.min(columns - 1, c));
+    }
+
+    private int clampRow(int r) {
+        return Math.max(0, Math.min(rows - 1, r));
+    }
+
+    private static final class IntList {
+        private int[] values = new int[8];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] sortedUnique() {
+            int[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            int unique = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) {
+                    sorted[unique++] = sorted[i];
+                }
+            }
+            return Arrays.copyOf(sorted, unique);
+        }
+    }
+}
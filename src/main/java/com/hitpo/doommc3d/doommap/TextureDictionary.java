@@ -0,0 +1,140 @@
+package com.hitpo.doommc3d.doommap;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Per-map table of texture/flat names, keyed by the raw 8-byte lump name read as a little-endian
+ * {@code long}. Each distinct name is decoded to a String once; sidedefs and sectors store the id.
+ *
+ * Id 0 is always "-" (no texture).
+ */
+public final class TextureDictionary {
+    public static final int NONE = 0;
+    private static final long NONE_KEY = '-';
+
+    private long[] slots = new long[64];
+    private int[] slotIds = new int[64];
+    private long[] keys = new long[16];
+    private String[] names = new String[16];
+    private int size;
+
+    public TextureDictionary() {
+        intern(NONE_KEY);
+    }
+
+    /**
+     * Returns the id for an 8-byte name key, adding it on first sight.
+     */
+    public int intern(long rawKey) {
+        long key = canonical(rawKey);
+        int mask = slots.length - 1;
+        int slot = mix(key) & mask;
+        while (slotIds[slot] != 0) {
+            if (slots[slot] == key) {
+                return slotIds[slot] - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int id = size++;
+        if (id == keys.length) {
+            keys = Arrays.copyOf(keys, id * 2);
+            names = Arrays.copyOf(names, id * 2);
+        }
+        keys[id] = key;
+        names[id] = decode(key);
+        slots[slot] = key;
+        slotIds[slot] = id + 1;
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    /**
+     * Id for {@code name}, or -1 if this map never uses it.
+     */
+    public int find(String name) {
+        long key = encode(name);
+        int mask = slots.length - 1;
+        int slot = mix(key) & mask;
+        while (slotIds[slot] != 0) {
+            if (slots[slot] == key) {
+                return slotIds[slot] - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    public String name(int id) {
+        return names[id];
+    }
+
+    public long key(int id) {
+        return keys[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Packs up to 8 ASCII characters the way they sit in a WAD: little-endian, NUL padded.
+     */
+    public static long encode(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.US_ASCII);
+        long key = 0;
+        for (int i = 0; i < Math.min(8, bytes.length); i++) {
+            key |= (bytes[i] & 0xFFL) << (i * 8);
+        }
+        return canonical(key);
+    }
+
+    /**
+     * Zeroes everything from the first NUL on, so garbage left after the terminator by some
+     * editors doesn't produce distinct ids for the same name.
+     */
+    private static long canonical(long key) {
+        for (int i = 0; i < 8; i++) {
+            if (((key >>> (i * 8)) & 0xFF) == 0) {
+                return i == 0 ? 0 : key & (-1L >>> (64 - i * 8));
+            }
+        }
+        return key;
+    }
+
+    private static String decode(long key) {
+        byte[] bytes = new byte[8];
+        int length = 0;
+        while (length < 8 && ((key >>> (length * 8)) & 0xFF) != 0) {
+            bytes[length] = (byte) (key >>> (length * 8));
+            length++;
+        }
+        return new String(bytes, 0, length, StandardCharsets.US_ASCII).trim();
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private void rehash() {
+        long[] oldSlots = slots;
+        int[] oldIds = slotIds;
+        slots = new long[oldSlots.length * 2];
+        slotIds = new int[oldSlots.length * 2];
+        int mask = slots.length - 1;
+        for (int i = 0; i < oldSlots.length; i++) {
+            if (oldIds[i] == 0) {
+                continue;
+            }
+            int slot = mix(oldSlots[i]) & mask;
+            while (slotIds[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = oldSlots[i];
+            slotIds[slot] = oldIds[i];
+        }
+    }
+}
@@ -27,4 +27,8 @@ public final class DoomGenConfig {
     public static int getMaxWorldHeight() {
         return Integer.parseInt(PROPS.getProperty("MAX_WORLD_HEIGHT", "320"));
     }
+
+    public static int getBuildTickBudgetMs() {
+        return Math.max(1, Integer.parseInt(PROPS.getProperty("BUILD_TICK_BUDGET_MS", "10")));
+    }
 }
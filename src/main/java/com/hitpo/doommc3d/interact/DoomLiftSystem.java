@@ -224,15 +224,15 @@ public final class DoomLiftSystem {
                 + " topY=" + lift.topY
                 + " bottomY=" + lift.bottomY
                 + " bboxX=[" + minX + "," + maxX + "] bboxZ=[" + minZ + "," + maxZ + "]");
-            // Prefer sector polygon containment using Doom coordinates derived from the trigger
+            // Prefer sector containment of the trigger column
             double doomX = lift.worldBlockToDoomX(triggerX);
             double doomZ = lift.worldBlockToDoomZ(triggerZ);
-            if (Lift.containsPoint(lift.sectorPolygon, doomX, doomZ)) {
+            if (lift.containsBlock(world, triggerX, triggerZ)) {
                 double playerFloorWorldY = activator.getBlockPos().getY() + 1.0;
                 double currentWorldY = lift.worldY(lift.currentY);
                 double offset = playerFloorWorldY - currentWorldY;
                 lift.setAnchorOffset(offset);
-                DebugLogger.debug("DoomLiftSystem.activate.anchor", () -> "[LiftDebug] matched by sector polygon; anchoring lift to trigger: playerFloorWorldY=" + playerFloorWorldY + " currentWorldY=" + currentWorldY + " offset=" + offset + " doom=(" + doomX + "," + doomZ + ")");
+                DebugLogger.debug("DoomLiftSystem.activate.anchor", () -> "[LiftDebug] matched by sector; anchoring lift to trigger: playerFloorWorldY=" + playerFloorWorldY + " currentWorldY=" + currentWorldY + " offset=" + offset + " doom=(" + doomX + "," + doomZ + ")");
                 lift.activate(world);
                 anyMatched = true;
                 continue;
@@ -285,7 +285,9 @@ public final class DoomLiftSystem {
 
         private final List<FloorCell> floor;
         private final List<BoundaryColumn> boundaries;
-        private final List<com.hitpo.doommc3d.doommap.Vertex> sectorPolygon;
+        private final com.hitpo.doommc3d.doommap.DoomMapTopology topology;
+        private final com.hitpo.doommc3d.doommap.DoomBsp bsp;
+        private final int sectorIndex;
         private final int originBlockX;
         private final int originBlockZ;
 
@@ -315,7 +317,9 @@ public final class DoomLiftSystem {
         public Lift(
             List<FloorCell> floor,
             List<BoundaryColumn> boundaries,
-            List<com.hitpo.doommc3d.doommap.Vertex> sectorPolygon,
+            com.hitpo.doommc3d.doommap.DoomMapTopology topology,
+            com.hitpo.doommc3d.doommap.DoomBsp bsp,
+            int sectorIndex,
             int originBlockX,
             int originBlockZ,
             BlockPos buildOrigin,
@@ -327,7 +331,9 @@ public final class DoomLiftSystem {
         ) {
             this.floor = floor;
             this.boundaries = boundaries;
-            this.sectorPolygon = sectorPolygon;
+            this.topology = topology;
+            this.bsp = bsp;
+            this.sectorIndex = sectorIndex;
             this.originBlockX = originBlockX;
             this.originBlockZ = originBlockZ;
             this.buildOrigin = buildOrigin.toImmutable();
@@ -788,9 +794,7 @@ public final class DoomLiftSystem {
                 // Allow a small horizontal margin to be more forgiving for edge cases
                 if (entityX < minX - 0.2 || entityX > maxX + 0.2 || entityZ < minZ - 0.2 || entityZ > maxZ + 0.2) continue;
 
-                double doomX = toDoomX((int) Math.floor(entityX));
-                double doomZ = toDoomZ((int) Math.floor(entityZ));
-                if (!containsPoint(sectorPolygon, doomX, doomZ)) continue;
+                if (!containsBlock(world, (int) Math.floor(entityX), (int) Math.floor(entityZ))) continue;
 
                 riders.add(e);
             }
@@ -863,17 +867,25 @@ public final class DoomLiftSystem {
             return false;
         }
 
-        public static boolean containsPoint(List<com.hitpo.doommc3d.doommap.Vertex> polygon, double x, double y) {
-            boolean inside = false;
-            for (int i = 0, j = polygon.size() - 1; i < polygon.size(); j = i++) {
-                var vi = polygon.get(i);
-                var vj = polygon.get(j);
-                boolean intersect =
-                    ((vi.y() > y) != (vj.y() > y))
-                        && (x < (vj.x() - vi.x()) * (y - vi.y()) / (double) (vj.y() - vi.y()) + vi.x());
-                if (intersect) inside = !inside;
+        // The level's sector raster when it covers the column; the Doom-space tests below otherwise.
+        public boolean containsBlock(ServerWorld world, int worldBlockX, int worldBlockZ) {
+            DoomSectorGraph graph = DoomSectorGraphRegistry.get(world);
+            DoomSectorRaster raster = graph != null ? graph.raster() : null;
+            if (raster != null && raster.covers(worldBlockX, worldBlockZ)) {
+                return raster.contains(sectorIndex, worldBlockX, worldBlockZ);
             }
-            return inside;
+            return containsDoomPoint(toDoomX(worldBlockX), toDoomZ(worldBlockZ));
+        }
+
+        // Node-tree lookup when the map has one; the sector's loops (holes excluded) otherwise.
+        public boolean containsDoomPoint(double x, double y) {
+            if (bsp != null) {
+                int sector = bsp.sectorAt(x, y);
+                if (sector >= 0) {
+                    return sector == sectorIndex;
+                }
+            }
+            return topology.containsPoint(sectorIndex, x, y);
         }
 
         public static BlockState floorStateFromFlat(String flat) {
@@ -1,10 +1,11 @@
 package com.hitpo.doommc3d.interact;
 
 /**
- * A "special line" trigger (use/shoot) represented in world-space.
+ * A "special line" trigger (use/shoot) represented in world-space, remembering the linedef it came from.
  */
 public record DoomLineTrigger(
     int id,
+    int linedef,
     Type type,
     double x1,
     double z1,
@@ -0,0 +1,58 @@
+package com.hitpo.doommc3d.interact;
+
+import com.hitpo.doommc3d.DoomConstants;
+import com.hitpo.doommc3d.doommap.LinedefGrid;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Spatial lookup for line triggers: maps a world-space query back into Doom units and asks the
+ * map's {@link LinedefGrid} which linedefs are nearby, so use/shoot checks only test triggers on
+ * those lines instead of every trigger in the level.
+ */
+public final class DoomLineTriggerIndex {
+    // Trigger endpoints are snapped to block centres, so a linedef can sit up to a block from its
+    // trigger; the extra block covers the use-ray hit threshold.
+    private static final double PADDING = 2.0 * DoomConstants.DOOM_TO_MC_SCALE;
+
+    private final LinedefGrid grid;
+    private final DoomLineTrigger[] triggerByLinedef;
+    // World block coordinate of Doom (0, 0): worldX = offsetX + doomX / scale, worldZ = offsetZ - doomY / scale.
+    private final int offsetX;
+    private final int offsetZ;
+
+    public DoomLineTriggerIndex(LinedefGrid grid, int linedefCount, List<DoomLineTrigger> triggers, int offsetX, int offsetZ) {
+        this.grid = grid;
+        this.triggerByLinedef = new DoomLineTrigger[linedefCount];
+        for (DoomLineTrigger trigger : triggers) {
+            if (trigger.linedef() >= 0 && trigger.linedef() < linedefCount) {
+                triggerByLinedef[trigger.linedef()] = trigger;
+            }
+        }
+        this.offsetX = offsetX;
+        this.offsetZ = offsetZ;
+    }
+
+    /**
+     * Triggers whose linedef lies in a grid cell near the world-space segment (x1,z1)-(x2,z2).
+     */
+    public List<DoomLineTrigger> near(double x1, double z1, double x2, double z2) {
+        int[] lines = grid.linesAlongSegment(toDoomX(x1), toDoomY(z1), toDoomX(x2), toDoomY(z2), PADDING);
+        List<DoomLineTrigger> result = new ArrayList<>();
+        for (int line : lines) {
+            DoomLineTrigger trigger = triggerByLinedef[line];
+            if (trigger != null) {
+                result.add(trigger);
+            }
+        }
+        return result;
+    }
+
+    private double toDoomX(double worldX) {
+        return (worldX - offsetX) * DoomConstants.DOOM_TO_MC_SCALE;
+    }
+
+    private double toDoomY(double worldZ) {
+        return (offsetZ - worldZ) * DoomConstants.DOOM_TO_MC_SCALE;
+    }
+}
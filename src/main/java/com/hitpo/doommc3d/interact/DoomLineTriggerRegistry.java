@@ -13,6 +13,7 @@ public final class DoomLineTriggerRegistry {
     private static final Map<RegistryKey<World>, List<DoomLineTrigger>> TRIGGERS = new ConcurrentHashMap<>();
     private static final Map<RegistryKey<World>, Map<Integer, Integer>> LAST_FIRED_TICK = new ConcurrentHashMap<>();
     private static final Map<RegistryKey<World>, Map<Integer, Boolean>> CONSUMED = new ConcurrentHashMap<>();
+    private static final Map<RegistryKey<World>, DoomLineTriggerIndex> INDEX = new ConcurrentHashMap<>();
 
     private DoomLineTriggerRegistry() {
     }
@@ -21,10 +22,20 @@ public final class DoomLineTriggerRegistry {
         TRIGGERS.remove(world.getRegistryKey());
         LAST_FIRED_TICK.remove(world.getRegistryKey());
         CONSUMED.remove(world.getRegistryKey());
+        INDEX.remove(world.getRegistryKey());
     }
 
     public static void set(ServerWorld world, List<DoomLineTrigger> triggers) {
+        set(world, triggers, null);
+    }
+
+    public static void set(ServerWorld world, List<DoomLineTrigger> triggers, DoomLineTriggerIndex index) {
         TRIGGERS.put(world.getRegistryKey(), List.copyOf(triggers));
+        if (index != null) {
+            INDEX.put(world.getRegistryKey(), index);
+        } else {
+            INDEX.remove(world.getRegistryKey());
+        }
         LAST_FIRED_TICK.put(world.getRegistryKey(), new HashMap<>());
         CONSUMED.put(world.getRegistryKey(), new HashMap<>());
     }
@@ -33,6 +44,15 @@ public final class DoomLineTriggerRegistry {
         return TRIGGERS.getOrDefault(world.getRegistryKey(), List.of());
     }
 
+    /**
+     * Triggers that could touch the world-space segment (x1,z1)-(x2,z2): a grid lookup when the
+     * level was registered with an index, otherwise every trigger.
+     */
+    public static List<DoomLineTrigger> getNear(ServerWorld world, double x1, double z1, double x2, double z2) {
+        DoomLineTriggerIndex index = INDEX.get(world.getRegistryKey());
+        return index == null ? getAll(world) : index.near(x1, z1, x2, z2);
+    }
+
     public static boolean isConsumed(ServerWorld world, int triggerId) {
         return CONSUMED.getOrDefault(world.getRegistryKey(), Map.of()).getOrDefault(triggerId, false);
     }
@@ -19,7 +19,6 @@ public final class DoomLineTriggerSystem {
     }
 
     public static void tryUseLine(ServerWorld world, ServerPlayerEntity player, Vec3d eye, Vec3d dir, double maxDist) {
-        List<DoomLineTrigger> triggers = DoomLineTriggerRegistry.getAll(world);
         DoomLineTrigger best = null;
         double bestT = Double.POSITIVE_INFINITY;
 
@@ -31,6 +30,8 @@ public final class DoomLineTriggerSystem {
         if (dLenSq < 1e-6) {
             return;
         }
+        double reach = maxDist / Math.sqrt(dLenSq);
+        List<DoomLineTrigger> triggers = DoomLineTriggerRegistry.getNear(world, ox, oz, ox + dx * reach, oz + dz * reach);
 
         for (DoomLineTrigger t : triggers) {
             if (t.type() != DoomLineTrigger.Type.USE) {
@@ -62,11 +63,11 @@ public final class DoomLineTriggerSystem {
     }
 
     public static void tryShootLine(ServerWorld world, ServerPlayerEntity player, Vec3d start, Vec3d end) {
-        List<DoomLineTrigger> triggers = DoomLineTriggerRegistry.getAll(world);
         double ax = start.x;
         double az = start.z;
         double bx = end.x;
         double bz = end.z;
+        List<DoomLineTrigger> triggers = DoomLineTriggerRegistry.getNear(world, ax, az, bx, bz);
 
         DoomLineTrigger best = null;
         double bestT = Double.POSITIVE_INFINITY;
@@ -1,6 +1,9 @@
 package com.hitpo.doommc3d.interact;
 
 import com.hitpo.doommc3d.DoomConstants;
+import com.hitpo.doommc3d.doommap.DoomBsp;
+import com.hitpo.doommc3d.doommap.DoomMapTopology;
+import com.hitpo.doommc3d.doommap.DoomReject;
 import com.hitpo.doommc3d.doommap.Vertex;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
@@ -23,32 +26,88 @@ public final class DoomSectorGraph {
     private final int originBlockZ;
 
     private final SectorNode[] sectors;
+    // Null for maps without (readable) nodes; lookups then scan sector loops.
+    private final DoomBsp bsp;
+    private final DoomMapTopology topology;
+    // Null when the map's REJECT lump is missing or truncated; sight is then never pre-rejected.
+    private final DoomReject reject;
+    // Null when the map has no sector cells; lookups then go through the node tree or loops.
+    private final DoomSectorRaster raster;
 
-    public DoomSectorGraph(BlockPos buildOrigin, int originBlockX, int originBlockZ, SectorNode[] sectors) {
+    public DoomSectorGraph(BlockPos buildOrigin, int originBlockX, int originBlockZ, SectorNode[] sectors, DoomBsp bsp, DoomMapTopology topology, DoomReject reject, DoomSectorRaster raster) {
         this.buildOrigin = buildOrigin.toImmutable();
         this.originBlockX = originBlockX;
         this.originBlockZ = originBlockZ;
         this.sectors = sectors;
+        this.bsp = bsp;
+        this.topology = topology;
+        this.reject = reject;
+        this.raster = raster;
     }
 
+    public DoomSectorRaster raster() {
+        return raster;
+    }
+
+    /**
+     * The sector whose cells hold {@code pos}, or -1 outside every sector (or without a raster).
+     */
+    public int sectorAt(BlockPos pos) {
+        return raster != null ? raster.sectorAt(pos) : -1;
+    }
+
+    /**
+     * The sector containing {@code worldPos}, or -1 if it is outside every sector (e.g. off the level).
+     */
     public int findSectorIndex(Vec3d worldPos) {
+        if (raster != null) {
+            int cellSector = raster.sectorAt(BlockPos.ofFloored(worldPos));
+            if (cellSector >= 0) {
+                return cellSector;
+            }
+        }
         double doomX = toDoomX(worldPos.x);
         double doomZ = toDoomZ(worldPos.z);
+        if (bsp != null) {
+            // The node tree always lands in some sector; outside that sector's polygon bounds the point
+            // is off the level (or the tree disagrees), so the loop scan below decides instead.
+            int sector = bsp.sectorAt(doomX, doomZ);
+            if (sector >= 0 && sector < sectors.length && inBounds(sectors[sector], doomX, doomZ)) {
+                return sector;
+            }
+        }
         for (int i = 0; i < sectors.length; i++) {
             SectorNode s = sectors[i];
             if (s == null || s.polygon.isEmpty()) {
                 continue;
             }
-            if (doomX < s.minX || doomX > s.maxX || doomZ < s.minZ || doomZ > s.maxZ) {
+            if (!inBounds(s, doomX, doomZ)) {
                 continue;
             }
-            if (containsPoint(s.polygon, doomX, doomZ)) {
+            if (topology.containsPoint(i, doomX, doomZ)) {
                 return i;
             }
         }
         return -1;
     }
 
+    /**
+     * True if the REJECT table says nothing in {@code from}'s sector can see {@code to}'s sector,
+     * so a sight raycast between them can be skipped. False whenever either point isn't inside a
+     * known sector (e.g. outside the built level) or the map has no REJECT data.
+     */
+    public boolean rejectsSight(Vec3d from, Vec3d to) {
+        if (reject == null) {
+            return false;
+        }
+        int fromSector = findSectorIndex(from);
+        if (fromSector < 0) {
+            return false;
+        }
+        int toSector = findSectorIndex(to);
+        return toSector >= 0 && reject.isRejected(fromSector, toSector);
+    }
+
     public Set<Integer> floodSoundReachable(int startSector) {
         if (startSector < 0 || startSector >= sectors.length) {
             return Set.of();
@@ -76,6 +135,10 @@ public final class DoomSectorGraph {
         return visited;
     }
 
+    private static boolean inBounds(SectorNode s, double doomX, double doomZ) {
+        return s != null && doomX >= s.minX && doomX <= s.maxX && doomZ >= s.minZ && doomZ <= s.maxZ;
+    }
+
     private double toDoomX(double worldX) {
         double relBlock = worldX - buildOrigin.getX();
         return (relBlock + originBlockX) * (double) DoomConstants.DOOM_TO_MC_SCALE + DoomConstants.DOOM_TO_MC_SCALE / 2.0;
@@ -86,20 +149,6 @@ public final class DoomSectorGraph {
         return (originBlockZ - relBlock) * (double) DoomConstants.DOOM_TO_MC_SCALE + DoomConstants.DOOM_TO_MC_SCALE / 2.0;
     }
 
-    private static boolean containsPoint(List<Vertex> polygon, double x, double y) {
-        boolean inside = false;
-        for (int i = 0, j = polygon.size() - 1; i < polygon.size(); j = i++) {
-            Vertex vi = polygon.get(i);
-            Vertex vj = polygon.get(j);
-            boolean intersect = ((vi.y() > y) != (vj.y() > y))
-                && (x < (vj.x() - vi.x()) * (y - vi.y()) / (double) (vj.y() - vi.y()) + vi.x());
-            if (intersect) {
-                inside = !inside;
-            }
-        }
-        return inside;
-    }
-
     public static final class SectorNode {
         public final int tag;
         public final List<Vertex> polygon;
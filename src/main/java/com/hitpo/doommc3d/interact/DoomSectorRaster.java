@@ -0,0 +1,169 @@
+package com.hitpo.doommc3d.interact;
+
+import com.hitpo.doommc3d.convert.CompiledMap;
+import com.hitpo.doommc3d.convert.DoomToMCScale;
+import com.hitpo.doommc3d.doommap.Sector;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * The sector owning each block column of a built level, taken from the same cell masks the
+ * rasteriser filled floors from, so runtime lookups are an array read instead of a node-tree walk
+ * or point-in-polygon test.
+ *
+ * One short per XZ cell over the masks' bounding box: 0 for no sector, {@code sector + 1} for a
+ * single owner, or {@code -(bucket + 1)} for a cell claimed by several overlapping sectors, whose
+ * ids are then listed in an overflow bucket and told apart by floor height.
+ */
+public final class DoomSectorRaster {
+    // Sector ids have to fit in the positive half of a short.
+    private static final int MAX_SECTORS = Short.MAX_VALUE - 1;
+
+    private final int minX;
+    private final int minZ;
+    private final int width;
+    private final int depth;
+    private final short[] cells;
+    private final int[][] overflow;
+    // World Y of each sector's floor block, for picking between overlapping sectors.
+    private final int[] floorY;
+
+    private DoomSectorRaster(int minX, int minZ, int width, int depth, short[] cells, int[][] overflow, int[] floorY) {
+        this.minX = minX;
+        this.minZ = minZ;
+        this.width = width;
+        this.depth = depth;
+        this.cells = cells;
+        this.overflow = overflow;
+        this.floorY = floorY;
+    }
+
+    /**
+     * Rasterises {@code compiled}'s sector masks at {@code buildOrigin}, or returns null if the map
+     * has no cells or too many sectors to index with a short.
+     */
+    public static DoomSectorRaster build(CompiledMap compiled, BlockPos buildOrigin) {
+        int sectorCount = compiled.sectorCount();
+        if (sectorCount == 0 || sectorCount > MAX_SECTORS) {
+            return null;
+        }
+        int minX = Integer.MAX_VALUE;
+        int minZ = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxZ = Integer.MIN_VALUE;
+        for (int sector = 0; sector < sectorCount; sector++) {
+            CompiledMap.SectorMask mask = compiled.sectorMask(sector);
+            if (mask.isEmpty()) {
+                continue;
+            }
+            minX = Math.min(minX, mask.minX());
+            minZ = Math.min(minZ, mask.minZ());
+            maxX = Math.max(maxX, mask.minX() + mask.width());
+            maxZ = Math.max(maxZ, mask.minZ() + mask.depth());
+        }
+        if (minX > maxX) {
+            return null;
+        }
+
+        int width = maxX - minX;
+        int depth = maxZ - minZ;
+        short[] cells = new short[width * depth];
+        List<int[]> buckets = new ArrayList<>();
+        for (int sector = 0; sector < sectorCount; sector++) {
+            CompiledMap.SectorMask mask = compiled.sectorMask(sector);
+            if (mask.isEmpty()) {
+                continue;
+            }
+            // Mask bits run x-then-z, like the rasteriser reads them.
+            long[] bits = mask.bits();
+            for (int word = 0; word < bits.length; word++) {
+                long remaining = bits[word];
+                while (remaining != 0) {
+                    int bit = (word << 6) + Long.numberOfTrailingZeros(remaining);
+                    remaining &= remaining - 1;
+                    int x = mask.minX() + bit / mask.depth() - minX;
+                    int z = mask.minZ() + bit % mask.depth() - minZ;
+                    int index = x * depth + z;
+                    cells[index] = claim(cells[index], sector, buckets);
+                }
+            }
+        }
+
+        Sector[] sectors = compiled.map().sectors();
+        int[] floorY = new int[sectorCount];
+        for (int sector = 0; sector < sectorCount; sector++) {
+            floorY[sector] = buildOrigin.getY() + DoomToMCScale.toBlock(sectors[sector].floorHeight());
+        }
+        return new DoomSectorRaster(buildOrigin.getX() + minX, buildOrigin.getZ() + minZ, width, depth, cells,
+            buckets.toArray(new int[0][]), floorY);
+    }
+
+    private static short claim(short cell, int sector, List<int[]> buckets) {
+        if (cell == 0) {
+            return (short) (sector + 1);
+        }
+        if (cell > 0) {
+            buckets.add(new int[] {cell - 1, sector});
+            return (short) -buckets.size();
+        }
+        int bucket = -cell - 1;
+        int[] ids = buckets.get(bucket);
+        int[] grown = Arrays.copyOf(ids, ids.length + 1);
+        grown[ids.length] = sector;
+        buckets.set(bucket, grown);
+        return cell;
+    }
+
+    /**
+     * The sector at {@code pos}, or -1 outside every sector. Where sectors overlap, the one with the
+     * highest floor below {@code pos} wins, or the lowest floor if {@code pos} is under them all.
+     */
+    public int sectorAt(BlockPos pos) {
+        int cell = cell(pos.getX(), pos.getZ());
+        if (cell >= 0) {
+            return cell - 1;
+        }
+        int best = -1;
+        int lowest = -1;
+        for (int sector : overflow[-cell - 1]) {
+            if (floorY[sector] < pos.getY() && (best < 0 || floorY[sector] > floorY[best])) {
+                best = sector;
+            }
+            if (lowest < 0 || floorY[sector] < floorY[lowest]) {
+                lowest = sector;
+            }
+        }
+        return best >= 0 ? best : lowest;
+    }
+
+    /**
+     * True if the column at ({@code x}, {@code z}) belongs to {@code sector}, overlaps included.
+     */
+    public boolean contains(int sector, int x, int z) {
+        int cell = cell(x, z);
+        if (cell >= 0) {
+            return cell - 1 == sector;
+        }
+        for (int id : overflow[-cell - 1]) {
+            if (id == sector) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * True if ({@code x}, {@code z}) is within the raster; columns outside it belong to no sector.
+     */
+    public boolean covers(int x, int z) {
+        int rx = x - minX;
+        int rz = z - minZ;
+        return rx >= 0 && rz >= 0 && rx < width && rz < depth;
+    }
+
+    private int cell(int x, int z) {
+        return covers(x, z) ? cells[(x - minX) * depth + (z - minZ)] : 0;
+    }
+}
@@ -1,7 +1,7 @@
 package com.hitpo.doommc3d.sound;
 
 import com.hitpo.doommc3d.wad.WadDirectoryEntry;
-import com.hitpo.doommc3d.wad.WadFile;
+import com.hitpo.doommc3d.wad.WadLumpSource;
 import com.hitpo.doommc3d.wad.WadRepository;
 
 import javax.sound.sampled.AudioFileFormat;
@@ -65,7 +65,7 @@ public class DoomSoundLoader {
             return;
         }
         
-        WadFile wad;
+        WadLumpSource wad;
         try {
             wad = WadRepository.getOrLoad(null);
         } catch (Exception e) {
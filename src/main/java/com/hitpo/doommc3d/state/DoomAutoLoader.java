@@ -27,7 +27,7 @@ public class DoomAutoLoader {
             ServerWorld world = server.getOverworld(); // Use overworld for Doom
 
             // Prevent multiple simultaneous generations
-            if (generatingWorlds.getOrDefault(world, false)) {
+            if (generatingWorlds.getOrDefault(world, false) || DoomWorldBuilder.isBuilding(world)) {
                 com.hitpo.doommc3d.util.DebugLogger.debug("DoomAutoLoader", () -> "[DoomMC3D] Map generation already in progress, skipping auto-load for " + player.getName().getString());
                 return;
             }
@@ -50,8 +50,13 @@ public class DoomAutoLoader {
                 
                 generatingWorlds.put(world, true);
                 try {
-                    // Run the same logic as /doomgen command
-                    DoomWorldBuilder.build(world, player, desiredMap, null);
+                    // Run the same logic as /doomgen command; the map is prepared off-thread and may still fail.
+                    DoomWorldBuilder.build(world, player, desiredMap, null).whenComplete((ignored, error) -> {
+                        if (error != null) {
+                            state.setLastMap("e1m1");
+                            state.setCurrentLoadedMap("");
+                        }
+                    });
                     giveStartingGear(player);
                     
                     state.setCurrentLoadedMap(desiredMap);
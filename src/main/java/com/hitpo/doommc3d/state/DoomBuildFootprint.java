@@ -0,0 +1,165 @@
+package com.hitpo.doommc3d.state;
+
+import com.hitpo.doommc3d.worldgen.DoomVoxelGrid;
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.PersistentState;
+import net.minecraft.world.PersistentStateType;
+
+/**
+ * Which cells the last level build in this world staged, as one 4096-bit mask per chunk section,
+ * plus the origin it was built at. Persists across restarts so rebuilding a map in place can clear
+ * whatever the old layout left behind that the new one doesn't cover.
+ */
+public class DoomBuildFootprint extends PersistentState {
+    private static final BlockState AIR = Blocks.AIR.getDefaultState();
+    private static final int WORDS_PER_SECTION = 16 * 16 * 16 / 64;
+
+    private static final Codec<SectionMask> SECTION_CODEC = RecordCodecBuilder.create(instance ->
+        instance.group(
+            Codec.LONG.fieldOf("section").forGetter(SectionMask::key),
+            Codec.LONG_STREAM.fieldOf("cells").forGetter(mask -> Arrays.stream(mask.cells()))
+        ).apply(instance, (key, cells) -> new SectionMask(key, cells.toArray()))
+    );
+
+    public static final Codec<DoomBuildFootprint> CODEC = RecordCodecBuilder.create(instance ->
+        instance.group(
+            BlockPos.CODEC.optionalFieldOf("origin").forGetter(footprint -> Optional.ofNullable(footprint.origin)),
+            SECTION_CODEC.listOf().optionalFieldOf("sections", List.of()).forGetter(DoomBuildFootprint::sectionList)
+        ).apply(instance, (origin, sections) -> new DoomBuildFootprint(origin.orElse(null), sections))
+    );
+
+    private static final PersistentStateType<DoomBuildFootprint> TYPE = new PersistentStateType<>(
+        "doommc3d_footprint",
+        DoomBuildFootprint::new,
+        CODEC,
+        null
+    );
+
+    private BlockPos origin;
+    private Map<Long, long[]> sections = new HashMap<>();
+
+    private DoomBuildFootprint() {
+    }
+
+    private DoomBuildFootprint(BlockPos origin, List<SectionMask> sections) {
+        this.origin = origin;
+        for (SectionMask mask : sections) {
+            if (mask.cells().length == WORDS_PER_SECTION) {
+                this.sections.put(mask.key(), mask.cells());
+            }
+        }
+    }
+
+    public static DoomBuildFootprint get(ServerWorld world) {
+        return world.getPersistentStateManager().getOrCreate(TYPE);
+    }
+
+    /**
+     * The cells currently staged in {@code grid}, to be recorded with {@link #replace} once the
+     * build has written them.
+     */
+    public static Snapshot snapshot(BlockPos origin, DoomVoxelGrid grid) {
+        Map<Long, long[]> cells = new HashMap<>();
+        grid.forEach((x, y, z, state) -> {
+            long[] mask = cells.computeIfAbsent(ChunkSectionPos.asLong(x >> 4, y >> 4, z >> 4), key -> new long[WORDS_PER_SECTION]);
+            int index = cellIndex(x, y, z);
+            mask[index >> 6] |= 1L << index;
+        });
+        return new Snapshot(origin.toImmutable(), cells);
+    }
+
+    /**
+     * What the last build covered. The returned snapshot stays valid after a later {@link #replace},
+     * so a build being prepared off the server thread can hold on to it.
+     */
+    public Snapshot current() {
+        return new Snapshot(origin, sections);
+    }
+
+    /**
+     * The last build's origin if {@code pos} stands in a chunk column that build covered, else null.
+     */
+    public BlockPos originCovering(BlockPos pos) {
+        if (origin == null) {
+            return null;
+        }
+        int chunkX = pos.getX() >> 4;
+        int chunkZ = pos.getZ() >> 4;
+        for (long key : sections.keySet()) {
+            if (ChunkSectionPos.unpackX(key) == chunkX && ChunkSectionPos.unpackZ(key) == chunkZ) {
+                return origin;
+            }
+        }
+        return null;
+    }
+
+    public void replace(Snapshot snapshot) {
+        this.origin = snapshot.origin();
+        this.sections = new HashMap<>(snapshot.cells());
+        markDirty();
+    }
+
+    private List<SectionMask> sectionList() {
+        List<SectionMask> list = new ArrayList<>(sections.size());
+        for (Map.Entry<Long, long[]> entry : sections.entrySet()) {
+            list.add(new SectionMask(entry.getKey(), entry.getValue()));
+        }
+        return list;
+    }
+
+    // Same order as a chunk section's block storage (y, then z, then x).
+    private static int cellIndex(int x, int y, int z) {
+        return ((y & 15) << 8) | ((z & 15) << 4) | (x & 15);
+    }
+
+    public record Snapshot(BlockPos origin, Map<Long, long[]> cells) {
+        /**
+         * If this build was at {@code buildOrigin}, stages air into {@code grid} for every cell it
+         * covered and the new one doesn't, so stale blocks from the old layout are removed. Builds
+         * at a different origin leave the previous level alone. Returns the number of cells staged.
+         */
+        public long stageRemovals(BlockPos buildOrigin, DoomVoxelGrid grid) {
+            if (origin == null || !origin.equals(buildOrigin)) {
+                return 0;
+            }
+            long removed = 0;
+            for (Map.Entry<Long, long[]> entry : cells.entrySet()) {
+                long key = entry.getKey();
+                int baseX = ChunkSectionPos.unpackX(key) << 4;
+                int baseY = ChunkSectionPos.unpackY(key) << 4;
+                int baseZ = ChunkSectionPos.unpackZ(key) << 4;
+                long[] mask = entry.getValue();
+                for (int word = 0; word < mask.length; word++) {
+                    long remaining = mask[word];
+                    while (remaining != 0) {
+                        int index = (word << 6) + Long.numberOfTrailingZeros(remaining);
+                        remaining &= remaining - 1;
+                        int x = baseX + (index & 15);
+                        int y = baseY + (index >> 8);
+                        int z = baseZ + ((index >> 4) & 15);
+                        if (grid.get(x, y, z) == null) {
+                            grid.set(x, y, z, AIR);
+                            removed++;
+                        }
+                    }
+                }
+            }
+            return removed;
+        }
+    }
+
+    private record SectionMask(long key, long[] cells) {
+    }
+}
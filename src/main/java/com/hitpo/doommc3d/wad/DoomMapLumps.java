@@ -1,7 +1,6 @@
 package com.hitpo.doommc3d.wad;
 
 import java.nio.ByteBuffer;
-import java.util.List;
 import java.util.Locale;
 
 public class DoomMapLumps {
@@ -10,50 +9,56 @@ public class DoomMapLumps {
     public final ByteBuffer sidedefs;
     public final ByteBuffer vertexes;
     public final ByteBuffer sectors;
+    // Node-builder output is optional: some editors save maps without running one. Empty if absent.
+    public final ByteBuffer segs;
+    public final ByteBuffer ssectors;
+    public final ByteBuffer nodes;
+    public final ByteBuffer reject;
+    public final ByteBuffer blockmap;
 
-    private DoomMapLumps(ByteBuffer things, ByteBuffer linedefs, ByteBuffer sidedefs, ByteBuffer vertexes, ByteBuffer sectors) {
+    private DoomMapLumps(ByteBuffer things, ByteBuffer linedefs, ByteBuffer sidedefs, ByteBuffer vertexes, ByteBuffer sectors,
+                         ByteBuffer segs, ByteBuffer ssectors, ByteBuffer nodes, ByteBuffer reject, ByteBuffer blockmap) {
         this.things = things;
         this.linedefs = linedefs;
         this.sidedefs = sidedefs;
         this.vertexes = vertexes;
         this.sectors = sectors;
+        this.segs = segs;
+        this.ssectors = ssectors;
+        this.nodes = nodes;
+        this.reject = reject;
+        this.blockmap = blockmap;
     }
 
-    public static DoomMapLumps read(WadFile wad, String mapName) {
-        List<WadDirectoryEntry> entries = wad.getDirectory();
+    public static DoomMapLumps read(WadLumpSource wad, String mapName) {
         String upperName = mapName.toUpperCase(Locale.ROOT);
-        int mapIndex = findMapIndex(entries, upperName);
-        int base = mapIndex + 1;
-        WadDirectoryEntry things = requireEntry(entries, base, "THINGS");
-        WadDirectoryEntry linedefs = requireEntry(entries, base + 1, "LINEDEFS");
-        WadDirectoryEntry sidedefs = requireEntry(entries, base + 2, "SIDEDEFS");
-        WadDirectoryEntry vertexes = requireEntry(entries, base + 3, "VERTEXES");
-        WadDirectoryEntry sectors = requireEntry(entries, base + 7, "SECTORS");
+        WadIndex.MapLumpBlock block = wad.getIndex().getMap(upperName);
+        if (block == null) {
+            throw new IllegalArgumentException("Map not found: " + upperName);
+        }
         return new DoomMapLumps(
-            wad.readLump(things),
-            wad.readLump(linedefs),
-            wad.readLump(sidedefs),
-            wad.readLump(vertexes),
-            wad.readLump(sectors)
+            wad.readLump(requireEntry(block, WadIndex.MapLump.THINGS)),
+            wad.readLump(requireEntry(block, WadIndex.MapLump.LINEDEFS)),
+            wad.readLump(requireEntry(block, WadIndex.MapLump.SIDEDEFS)),
+            wad.readLump(requireEntry(block, WadIndex.MapLump.VERTEXES)),
+            wad.readLump(requireEntry(block, WadIndex.MapLump.SECTORS)),
+            optionalLump(wad, block, WadIndex.MapLump.SEGS),
+            optionalLump(wad, block, WadIndex.MapLump.SSECTORS),
+            optionalLump(wad, block, WadIndex.MapLump.NODES),
+            optionalLump(wad, block, WadIndex.MapLump.REJECT),
+            optionalLump(wad, block, WadIndex.MapLump.BLOCKMAP)
         );
     }
 
-    private static int findMapIndex(List<WadDirectoryEntry> entries, String target) {
-        for (int i = 0; i < entries.size(); i++) {
-            if (entries.get(i).getName().equals(target)) {
-                return i;
-            }
-        }
-        throw new IllegalArgumentException("Map not found: " + target);
+    private static ByteBuffer optionalLump(WadLumpSource wad, WadIndex.MapLumpBlock block, WadIndex.MapLump lump) {
+        WadDirectoryEntry entry = block.get(lump);
+        return entry == null ? ByteBuffer.allocate(0) : wad.readLump(entry);
     }
 
-    private static WadDirectoryEntry requireEntry(List<WadDirectoryEntry> entries, int index, String expectedName) {
-        if (index < 0 || index >= entries.size()) {
-            throw new IllegalArgumentException("Expected " + expectedName + " after map but directory truncated");
-        }
-        WadDirectoryEntry entry = entries.get(index);
-        if (!entry.getName().equals(expectedName)) {
-            throw new IllegalArgumentException("Expected " + expectedName + " but found " + entry.getName());
+    private static WadDirectoryEntry requireEntry(WadIndex.MapLumpBlock block, WadIndex.MapLump lump) {
+        WadDirectoryEntry entry = block.get(lump);
+        if (entry == null) {
+            throw new IllegalArgumentException("Expected " + lump.name() + " after map " + block.getName() + " but it is missing");
         }
         return entry;
     }
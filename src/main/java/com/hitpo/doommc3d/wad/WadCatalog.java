@@ -0,0 +1,272 @@
+package com.hitpo.doommc3d.wad;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32C;
+
+/**
+ * Persistent index of every WAD in the wads folders: path, size, mtime, content hash, type and
+ * map names, saved as a small text file in the mod data directory.
+ *
+ * The saved catalog is read once and answers map lookups and tab-completion immediately; a
+ * background refresh then re-probes only files whose size or mtime changed.
+ */
+public final class WadCatalog {
+    private static final String HEADER = "# doommc3d wad catalog v1";
+    private static final String FILE_NAME = "wad_catalog.txt";
+
+    private static final Map<Path, Entry> ENTRIES = new ConcurrentHashMap<>();
+    private static final AtomicBoolean REFRESHING = new AtomicBoolean();
+    private static volatile boolean loaded;
+
+    private WadCatalog() {
+    }
+
+    public static Path getCatalogFile() {
+        return WadLoader.getDataDirectory().resolve(FILE_NAME);
+    }
+
+    /**
+     * Loads the saved catalog (if not yet loaded) and starts a background rescan of changed files.
+     */
+    public static void refreshAsync() {
+        ensureLoaded();
+        if (!REFRESHING.compareAndSet(false, true)) {
+            return;
+        }
+        Thread.ofVirtual().name("DoomMC3D-WadCatalog").start(() -> {
+            try {
+                refresh();
+            } catch (RuntimeException e) {
+                com.hitpo.doommc3d.util.DebugLogger.debug("WadCatalog.refresh", () -> "[DoomMC3D] WAD catalog refresh failed: " + e);
+            } finally {
+                REFRESHING.set(false);
+            }
+        });
+    }
+
+    /**
+     * Rescans the wads folders on the calling thread, re-probing only files whose size or mtime
+     * differ from the catalog, and saves the catalog if anything changed.
+     */
+    public static synchronized void refresh() {
+        ensureLoaded();
+        Set<Path> seen = new HashSet<>();
+        int probed = 0;
+        boolean dirty = false;
+        for (Path dir : WadLoader.getWadsDirectories()) {
+            for (Path file : WadDiscovery.listWadFiles(dir)) {
+                Path key = normalize(file);
+                seen.add(key);
+                try {
+                    BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                    Entry known = ENTRIES.get(key);
+                    if (known != null && known.matches(attrs.size(), attrs.lastModifiedTime().toMillis())) {
+                        continue;
+                    }
+                    probed++;
+                    dirty = true;
+                    Entry scanned = scan(file);
+                    if (scanned == null) {
+                        ENTRIES.remove(key);
+                    } else {
+                        ENTRIES.put(key, scanned);
+                    }
+                } catch (IOException e) {
+                    dirty |= ENTRIES.remove(key) != null;
+                    com.hitpo.doommc3d.util.DebugLogger.debug("WadCatalog.refresh", () -> "[DoomMC3D] Skipping unreadable WAD " + file + ": " + e);
+                }
+            }
+        }
+        dirty |= ENTRIES.keySet().retainAll(seen);
+        if (dirty) {
+            save();
+        }
+        final int probedCount = probed;
+        com.hitpo.doommc3d.util.DebugLogger.debug("WadCatalog.refresh", () -> "[DoomMC3D] WAD catalog: " + ENTRIES.size() + " WADs, " + probedCount + " rescanned");
+    }
+
+    /**
+     * All catalogued WADs, sorted by path.
+     */
+    public static List<Entry> entries() {
+        ensureLoaded();
+        List<Entry> list = new ArrayList<>(ENTRIES.values());
+        list.sort(Comparator.comparing(Entry::path));
+        return list;
+    }
+
+    /**
+     * The WAD that provides {@code mapName}: an IWAD if one has it, otherwise the first PWAD by path.
+     * Returns null if no catalogued WAD contains the map.
+     */
+    public static Entry findWadForMap(String mapName) {
+        String wanted = WadIndex.normalize(mapName);
+        Entry pwad = null;
+        for (Entry entry : entries()) {
+            if (!entry.mapNames().contains(wanted)) {
+                continue;
+            }
+            if (entry.isIwad()) {
+                return entry;
+            }
+            if (pwad == null) {
+                pwad = entry;
+            }
+        }
+        return pwad;
+    }
+
+    /**
+     * Every map name across all catalogued WADs, upper-case and sorted.
+     */
+    public static Set<String> mapNames() {
+        Set<String> names = new TreeSet<>();
+        for (Entry entry : entries()) {
+            names.addAll(entry.mapNames());
+        }
+        return names;
+    }
+
+    /**
+     * Content hash of {@code file}, reusing the catalogued value while size and mtime are unchanged.
+     */
+    public static long contentHash(Path file) throws IOException {
+        ensureLoaded();
+        BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        Entry known = ENTRIES.get(normalize(file));
+        if (known != null && known.matches(attrs.size(), attrs.lastModifiedTime().toMillis())) {
+            return known.contentHash();
+        }
+        return hash(file);
+    }
+
+    static Entry scan(Path file) throws IOException {
+        WadDiscovery.WadCandidate candidate = WadDiscovery.probe(file);
+        if (candidate == null) {
+            return null;
+        }
+        return new Entry(normalize(file), candidate.size(), candidate.lastModifiedMillis(), hash(file), candidate.identification(), candidate.mapNames());
+    }
+
+    /**
+     * CRC32C over the whole file. Hardware-accelerated, so even DOOM2.WAD hashes in a few ms.
+     */
+    static long hash(Path file) throws IOException {
+        CRC32C crc = new CRC32C();
+        ByteBuffer mapped = WadMappings.map(file);
+        if (mapped != null) {
+            crc.update(mapped);
+        } else {
+            crc.update(Files.readAllBytes(file));
+        }
+        return crc.getValue();
+    }
+
+    private static void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (WadCatalog.class) {
+            if (!loaded) {
+                load();
+                loaded = true;
+            }
+        }
+    }
+
+    private static void load() {
+        Path file = getCatalogFile();
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        try {
+            List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            if (lines.isEmpty() || !HEADER.equals(lines.get(0))) {
+                return;
+            }
+            for (String line : lines.subList(1, lines.size())) {
+                Entry entry = Entry.parse(line);
+                if (entry != null) {
+                    ENTRIES.put(entry.path(), entry);
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            com.hitpo.doommc3d.util.DebugLogger.debug("WadCatalog.load", () -> "[DoomMC3D] Ignoring unreadable WAD catalog: " + e);
+        }
+    }
+
+    private static void save() {
+        Path file = getCatalogFile();
+        List<String> lines = new ArrayList<>();
+        lines.add(HEADER);
+        for (Entry entry : entries()) {
+            lines.add(entry.format());
+        }
+        try {
+            Files.createDirectories(file.getParent());
+            Path tmp = file.resolveSibling(FILE_NAME + ".tmp");
+            Files.write(tmp, lines, StandardCharsets.UTF_8);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            com.hitpo.doommc3d.util.DebugLogger.debug("WadCatalog.save", () -> "[DoomMC3D] Could not save WAD catalog: " + e);
+        }
+    }
+
+    private static Path normalize(Path file) {
+        return file.toAbsolutePath().normalize();
+    }
+
+    /**
+     * One catalogued WAD. Saved as a tab-separated line: size, mtime, hash, type, maps, path.
+     */
+    public record Entry(Path path, long size, long lastModifiedMillis, long contentHash, String identification, List<String> mapNames) {
+        public boolean isIwad() {
+            return "IWAD".equals(identification);
+        }
+
+        public String fileName() {
+            return path.getFileName().toString();
+        }
+
+        boolean matches(long size, long lastModifiedMillis) {
+            return this.size == size && this.lastModifiedMillis == lastModifiedMillis;
+        }
+
+        String format() {
+            return size + "\t" + lastModifiedMillis + "\t" + Long.toHexString(contentHash) + "\t" + identification
+                + "\t" + String.join(",", mapNames) + "\t" + path;
+        }
+
+        static Entry parse(String line) {
+            String[] parts = line.split("\t", 6);
+            if (parts.length != 6) {
+                return null;
+            }
+            try {
+                List<String> maps = parts[4].isEmpty() ? List.of() : List.copyOf(Arrays.asList(parts[4].split(",")));
+                return new Entry(Path.of(parts[5]), Long.parseLong(parts[0]), Long.parseLong(parts[1]),
+                    Long.parseUnsignedLong(parts[2], 16), parts[3].toUpperCase(Locale.ROOT), maps);
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+    }
+}
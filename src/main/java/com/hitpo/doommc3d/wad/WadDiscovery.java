@@ -0,0 +1,144 @@
+package com.hitpo.doommc3d.wad;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Finds WAD files without loading them.
+ *
+ * Each candidate costs one 12-byte header read plus one directory read; lump data is never
+ * touched. Files are probed in parallel on virtual threads, so a wads/ folder full of community
+ * PWADs doesn't stall the first build.
+ */
+public final class WadDiscovery {
+    private WadDiscovery() {
+    }
+
+    /**
+     * Probes every *.wad file in {@code dirs} and returns the valid ones sorted by path.
+     */
+    public static List<WadCandidate> discover(List<Path> dirs) {
+        List<Path> files = new ArrayList<>();
+        for (Path dir : dirs) {
+            files.addAll(listWadFiles(dir));
+        }
+
+        List<WadCandidate> candidates = new ArrayList<>(files.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<WadCandidate>> probes = new ArrayList<>(files.size());
+            for (Path file : files) {
+                probes.add(executor.submit(() -> probe(file)));
+            }
+            for (int i = 0; i < probes.size(); i++) {
+                try {
+                    WadCandidate candidate = probes.get(i).get();
+                    if (candidate != null) {
+                        candidates.add(candidate);
+                    }
+                } catch (ExecutionException e) {
+                    Path failed = files.get(i);
+                    com.hitpo.doommc3d.util.DebugLogger.debug("WadDiscovery.probe", () -> "[DoomMC3D] Skipping unreadable WAD " + failed + ": " + e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        candidates.sort(Comparator.comparing(WadCandidate::path));
+        return candidates;
+    }
+
+    /**
+     * Reads the header and directory of {@code file}; returns null if it isn't an IWAD/PWAD.
+     */
+    public static WadCandidate probe(Path file) throws IOException {
+        BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, header, 0);
+            if (header.hasRemaining()) {
+                return null;
+            }
+            byte[] magic = new byte[4];
+            header.get(0, magic);
+            String identification = new String(magic, StandardCharsets.US_ASCII);
+            if (!"IWAD".equals(identification) && !"PWAD".equals(identification)) {
+                return null;
+            }
+            int numLumps = header.getInt(4);
+            int dirOffset = header.getInt(8);
+            if (numLumps < 0 || dirOffset < 0 || (long) dirOffset + numLumps * 16L > attrs.size()) {
+                return null;
+            }
+
+            ByteBuffer dir = ByteBuffer.allocate(numLumps * 16).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, dir, dirOffset);
+            dir.flip();
+            List<WadDirectoryEntry> entries = new ArrayList<>(numLumps);
+            byte[] nameBytes = new byte[8];
+            for (int i = 0; i < numLumps; i++) {
+                int pos = dir.getInt();
+                int size = dir.getInt();
+                dir.get(nameBytes);
+                String name = new String(nameBytes, StandardCharsets.US_ASCII).trim().toUpperCase(Locale.ROOT);
+                entries.add(new WadDirectoryEntry(pos, size, name));
+            }
+            List<String> maps = List.copyOf(WadIndex.build(entries).getMapNames());
+            return new WadCandidate(file, identification, numLumps, attrs.size(), attrs.lastModifiedTime().toMillis(), maps);
+        }
+    }
+
+    static List<Path> listWadFiles(Path wadsDir) {
+        if (!Files.isDirectory(wadsDir)) {
+            return List.of();
+        }
+        try (var stream = Files.list(wadsDir)) {
+            return stream
+                .filter(Files::isRegularFile)
+                .filter(path -> path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".wad"))
+                .sorted(Comparator.naturalOrder())
+                .toList();
+        } catch (IOException e) {
+            return List.of();
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long pos = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, pos);
+            if (read < 0) {
+                break;
+            }
+            pos += read;
+        }
+    }
+
+    /**
+     * What discovery learned about a WAD from its header and directory alone.
+     */
+    public record WadCandidate(Path path, String identification, int lumpCount, long size, long lastModifiedMillis, List<String> mapNames) {
+        public boolean isIwad() {
+            return "IWAD".equals(identification);
+        }
+
+        public String fileName() {
+            return path.getFileName().toString();
+        }
+    }
+}
@@ -11,44 +11,73 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 
-public class WadFile {
+/**
+ * A single WAD file and its lump directory.
+ *
+ * By default the file is memory-mapped and {@link #readLump} hands out zero-copy slices of the
+ * mapping, so large IWADs/PWADs don't land on the heap. If mapping is unavailable (or disabled with
+ * {@code -Ddoommc3d.wad.mmap=false}) the whole file is read into a heap array instead.
+ */
+public class WadFile implements WadLumpSource {
     private static final String[] VALID_HEADERS = {"IWAD", "PWAD"};
+    private static final boolean MMAP_ENABLED = !"false".equalsIgnoreCase(System.getProperty("doommc3d.wad.mmap"));
 
     private final ByteBuffer data;
+    private final boolean memoryMapped;
     private final List<WadDirectoryEntry> directory = new ArrayList<>();
     private final String identification;
     private final Path source;
+    private final WadIndex index;
 
     public WadFile(Path path) throws IOException {
-        byte[] bytes = Files.readAllBytes(path);
-        data = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        this(path, MMAP_ENABLED);
+    }
+
+    public WadFile(Path path, boolean memoryMap) throws IOException {
+        ByteBuffer buffer = memoryMap ? WadMappings.map(path) : null;
+        memoryMapped = buffer != null;
+        if (buffer == null) {
+            buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        }
+        data = buffer.order(ByteOrder.LITTLE_ENDIAN);
         identification = readIdentification();
         source = path;
         parseDirectory();
+        index = WadIndex.build(getDirectory());
     }
 
     private String readIdentification() {
+        if (data.capacity() < 12) {
+            return "";
+        }
         byte[] magic = new byte[4];
-        data.position(0);
-        data.get(magic);
+        data.get(0, magic);
         return new String(magic, StandardCharsets.US_ASCII);
     }
 
-    private void parseDirectory() {
-        data.position(4);
-        int numLumps = data.getInt();
-        int dirOffset = data.getInt();
-        data.position(dirOffset);
+    private void parseDirectory() throws IOException {
+        if (data.capacity() < 12) {
+            throw new IOException("WAD too small for a header: " + source);
+        }
+        ByteBuffer view = data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        view.position(4);
+        int numLumps = view.getInt();
+        int dirOffset = view.getInt();
+        if (numLumps < 0 || dirOffset < 0 || (long) dirOffset + numLumps * 16L > view.capacity()) {
+            throw new IOException("WAD directory out of bounds: " + source);
+        }
+        view.position(dirOffset);
         for (int i = 0; i < numLumps; i++) {
-            int pos = data.getInt();
-            int size = data.getInt();
+            int pos = view.getInt();
+            int size = view.getInt();
             byte[] nameBytes = new byte[8];
-            data.get(nameBytes);
+            view.get(nameBytes);
             String name = new String(nameBytes, StandardCharsets.US_ASCII).trim().toUpperCase(Locale.ROOT);
             directory.add(new WadDirectoryEntry(pos, size, name));
         }
     }
 
+    @Override
     public ByteBuffer readLump(WadDirectoryEntry entry) {
         ByteBuffer slice = data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
         slice.position(entry.getOffset());
@@ -56,18 +85,54 @@ public class WadFile {
         return slice.slice().order(ByteOrder.LITTLE_ENDIAN);
     }
 
+    @Override
     public List<WadDirectoryEntry> getDirectory() {
         return Collections.unmodifiableList(directory);
     }
 
+    @Override
+    public WadIndex getIndex() {
+        return index;
+    }
+
+    @Override
+    public WadDirectoryEntry findLump(String name) {
+        return index.find(name);
+    }
+
+    /**
+     * True when lumps are served straight from a (possibly shared) file mapping rather than a heap copy.
+     */
+    public boolean isMemoryMapped() {
+        return memoryMapped;
+    }
+
+    /**
+     * Bytes backing this WAD: heap bytes for the fallback mode, mapped bytes otherwise.
+     */
+    public long getByteSize() {
+        return data.capacity();
+    }
+
     public String getIdentification() {
         return identification;
     }
 
+    @Override
     public Path getSource() {
         return source;
     }
 
+    @Override
+    public String getName() {
+        return source.getFileName().toString();
+    }
+
+    @Override
+    public long contentHash() throws IOException {
+        return WadCatalog.contentHash(source);
+    }
+
     public boolean isValidHeader() {
         for (String header : VALID_HEADERS) {
             if (header.equals(identification)) {
@@ -0,0 +1,155 @@
+package com.hitpo.doommc3d.wad;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hashed view over a WAD directory, built once per {@link WadFile}.
+ *
+ * Name lookups are O(1). When a name appears more than once the last entry wins, matching how
+ * Doom resolves duplicate lumps. Map markers (ExMy / MAPxx, or anything directly followed by
+ * THINGS) are indexed together with the map lumps that follow them.
+ */
+public final class WadIndex {
+    private final List<WadDirectoryEntry> directory;
+    private final Map<String, Integer> lastIndexByName;
+    private final Map<String, MapLumpBlock> maps;
+
+    private WadIndex(List<WadDirectoryEntry> directory, Map<String, Integer> lastIndexByName, Map<String, MapLumpBlock> maps) {
+        this.directory = directory;
+        this.lastIndexByName = lastIndexByName;
+        this.maps = maps;
+    }
+
+    public static WadIndex build(List<WadDirectoryEntry> directory) {
+        Map<String, Integer> byName = new HashMap<>(directory.size() * 2);
+        for (int i = 0; i < directory.size(); i++) {
+            byName.put(directory.get(i).getName(), i);
+        }
+
+        Map<String, MapLumpBlock> maps = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < directory.size(); i++) {
+            if (!MapLump.THINGS.name().equals(directory.get(i + 1).getName())) {
+                continue;
+            }
+            Map<MapLump, WadDirectoryEntry> lumps = new EnumMap<>(MapLump.class);
+            int j = i + 1;
+            while (j < directory.size()) {
+                MapLump lump = MapLump.byName(directory.get(j).getName());
+                if (lump == null || lumps.containsKey(lump)) {
+                    break;
+                }
+                lumps.put(lump, directory.get(j));
+                j++;
+            }
+            String marker = directory.get(i).getName();
+            // Re-putting moves nothing in a LinkedHashMap, so remove first to keep last-wins order.
+            maps.remove(marker);
+            maps.put(marker, new MapLumpBlock(marker, i, lumps));
+            i = j - 1;
+        }
+
+        return new WadIndex(directory, Collections.unmodifiableMap(byName), Collections.unmodifiableMap(maps));
+    }
+
+    public WadDirectoryEntry find(String name) {
+        int index = indexOf(name);
+        return index < 0 ? null : directory.get(index);
+    }
+
+    /**
+     * Directory index of the last lump called {@code name}, or -1.
+     */
+    public int indexOf(String name) {
+        if (name == null) {
+            return -1;
+        }
+        Integer index = lastIndexByName.get(normalize(name));
+        return index == null ? -1 : index;
+    }
+
+    public boolean contains(String name) {
+        return indexOf(name) >= 0;
+    }
+
+    public MapLumpBlock getMap(String mapName) {
+        return mapName == null ? null : maps.get(normalize(mapName));
+    }
+
+    /**
+     * Map marker names in directory order.
+     */
+    public Set<String> getMapNames() {
+        return maps.keySet();
+    }
+
+    public static String normalize(String name) {
+        return name.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * The classic map lumps, in the order they follow a map marker.
+     */
+    public enum MapLump {
+        THINGS,
+        LINEDEFS,
+        SIDEDEFS,
+        VERTEXES,
+        SEGS,
+        SSECTORS,
+        NODES,
+        SECTORS,
+        REJECT,
+        BLOCKMAP,
+        BEHAVIOR;
+
+        private static final Map<String, MapLump> BY_NAME = new HashMap<>();
+
+        static {
+            for (MapLump lump : values()) {
+                BY_NAME.put(lump.name(), lump);
+            }
+        }
+
+        static MapLump byName(String name) {
+            return BY_NAME.get(name);
+        }
+    }
+
+    /**
+     * A map marker and the lumps found in its block. Missing lumps are simply absent.
+     */
+    public static final class MapLumpBlock {
+        private final String name;
+        private final int markerIndex;
+        private final Map<MapLump, WadDirectoryEntry> lumps;
+
+        private MapLumpBlock(String name, int markerIndex, Map<MapLump, WadDirectoryEntry> lumps) {
+            this.name = name;
+            this.markerIndex = markerIndex;
+            this.lumps = lumps;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getMarkerIndex() {
+            return markerIndex;
+        }
+
+        public WadDirectoryEntry get(MapLump lump) {
+            return lumps.get(lump);
+        }
+
+        public boolean has(MapLump lump) {
+            return lumps.containsKey(lump);
+        }
+    }
+}
@@ -6,20 +6,23 @@ import net.fabricmc.loader.api.FabricLoader;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Locale;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 public final class WadLoader {
     private WadLoader() {
     }
 
-    public static Path getWadsDirectory() {
+    public static Path getDataDirectory() {
         Path gameDir = FabricLoader.getInstance().getGameDir();
-        return gameDir.resolve("mods").resolve(DoomConstants.MOD_ID).resolve("wads");
+        return gameDir.resolve("mods").resolve(DoomConstants.MOD_ID);
+    }
+
+    public static Path getWadsDirectory() {
+        return getDataDirectory().resolve("wads");
     }
 
     public static List<Path> getWadsDirectories() {
@@ -35,66 +38,91 @@ public final class WadLoader {
         return List.copyOf(dirs);
     }
 
+    /**
+     * File name of the catalogued WAD that contains {@code mapName}, or null if none does.
+     * Answered from {@link WadCatalog} without opening any WAD.
+     */
+    public static String findWadForMap(String mapName) {
+        WadCatalog.Entry entry = WadCatalog.findWadForMap(mapName);
+        return entry == null ? null : entry.fileName();
+    }
+
     public static WadFile loadFirstIwad() throws IOException {
         return load(null);
     }
 
-    public static WadFile load(String requestedName) throws IOException {
-        List<Path> wadsDirs = getWadsDirectories();
-        Files.createDirectories(getWadsDirectory());
-        List<Path> candidates = wadsDirs.stream()
-            .flatMap(dir -> {
-                try {
-                    return listWadFiles(dir).stream();
-                } catch (IOException e) {
-                    return java.util.stream.Stream.empty();
+    /**
+     * Loads a "+"-separated list such as "DOOM2.WAD+SCYTHE.WAD" as a {@link WadStack}, later files
+     * shadowing earlier ones. If the first file is a PWAD, the first IWAD found is layered beneath it.
+     * A lone IWAD (or a blank spec) is returned as a plain {@link WadFile}.
+     */
+    public static WadLumpSource loadStack(String spec) throws IOException {
+        List<WadFile> layers = new ArrayList<>();
+        if (spec != null) {
+            for (String part : spec.split("\\+")) {
+                if (!part.isBlank()) {
+                    layers.add(load(part.trim()));
                 }
-            })
-            .sorted(Comparator.naturalOrder())
-            .collect(Collectors.toList());
+            }
+        }
+        if (layers.isEmpty()) {
+            return loadFirstIwad();
+        }
+        if (!layers.get(0).isIwad()) {
+            try {
+                WadFile iwad = loadFirstIwad();
+                if (iwad.isIwad()) {
+                    layers.add(0, iwad);
+                }
+            } catch (IOException e) {
+                // No IWAD around: the PWAD(s) are used on their own.
+            }
+        }
+        if (layers.size() == 1) {
+            return layers.get(0);
+        }
+        return new WadStack(layers.get(0), layers.subList(1, layers.size()));
+    }
+
+    /**
+     * Header-only scan of every WAD directory; see {@link WadDiscovery}.
+     */
+    public static List<WadDiscovery.WadCandidate> discover() throws IOException {
+        Files.createDirectories(getWadsDirectory());
+        return WadDiscovery.discover(getWadsDirectories());
+    }
 
+    public static WadFile load(String requestedName) throws IOException {
+        List<Path> wadsDirs = getWadsDirectories();
         if (requestedName != null && !requestedName.isBlank()) {
-            Path explicit = matchByName(candidates, requestedName);
+            Files.createDirectories(getWadsDirectory());
+            Path explicit = matchByName(wadsDirs, requestedName);
             if (explicit == null) {
                 throw new IOException("Requested WAD '" + requestedName + "' not found in " + wadsDirs);
             }
-            WadFile wad = new WadFile(explicit);
+            WadFile wad = WadRepository.getFile(explicit);
             if (!wad.isValidHeader()) {
                 throw new IOException("Requested WAD is not valid: " + explicit);
             }
             return wad;
         }
-        WadFile pwadCandidate = null;
-        for (Path candidate : candidates) {
-            WadFile wad = new WadFile(candidate);
-            if (wad.isIwad()) {
-                return wad;
-            }
-            if ("PWAD".equals(wad.getIdentification()) && pwadCandidate == null) {
-                pwadCandidate = wad;
-            }
-        }
-        if (pwadCandidate != null) {
-            return pwadCandidate;
-        }
-        throw new IOException("No IWAD found in " + wadsDirs);
-    }
 
-    private static List<Path> listWadFiles(Path wadsDir) throws IOException {
-        if (!Files.isDirectory(wadsDir)) {
-            return List.of();
-        }
-        try (var stream = Files.list(wadsDir)) {
-            return stream
-                .filter(Files::isRegularFile)
-                .filter(path -> path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".wad"))
-                .sorted(Comparator.naturalOrder())
-                .collect(Collectors.toList());
+        // Only the headers are read here; the chosen file is the only one actually loaded.
+        List<WadDiscovery.WadCandidate> candidates = discover();
+        WadDiscovery.WadCandidate chosen = candidates.stream()
+            .filter(WadDiscovery.WadCandidate::isIwad)
+            .findFirst()
+            .orElse(candidates.isEmpty() ? null : candidates.get(0));
+        if (chosen == null) {
+            throw new IOException("No IWAD found in " + wadsDirs);
         }
+        return WadRepository.getFile(chosen.path());
     }
 
-    private static Path matchByName(List<Path> candidates, String requestedName) {
-        return candidates.stream()
+    private static Path matchByName(List<Path> wadsDirs, String requestedName) {
+        return wadsDirs.stream()
+            .flatMap(dir -> WadDiscovery.listWadFiles(dir).stream())
+            .sorted(Comparator.naturalOrder())
             .filter(path -> path.getFileName().toString().equalsIgnoreCase(requestedName))
             .findFirst()
             .orElse(null);
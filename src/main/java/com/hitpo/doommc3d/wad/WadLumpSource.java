@@ -0,0 +1,39 @@
+package com.hitpo.doommc3d.wad;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Anything lumps can be read from: a single {@link WadFile} or a {@link WadStack} of layered WADs.
+ */
+public interface WadLumpSource {
+    List<WadDirectoryEntry> getDirectory();
+
+    WadIndex getIndex();
+
+    ByteBuffer readLump(WadDirectoryEntry entry);
+
+    /**
+     * File the lumps (or, for a stack, the base layer) come from.
+     */
+    Path getSource();
+
+    /**
+     * Name that {@link WadLoader#loadStack} resolves back to this source, e.g. "DOOM2.WAD+SCYTHE.WAD".
+     */
+    String getName();
+
+    /**
+     * Hash of the file contents (every layer, for a stack); changes whenever any byte does.
+     */
+    long contentHash() throws IOException;
+
+    /**
+     * Last visible entry named {@code name} (case-insensitive), or null.
+     */
+    default WadDirectoryEntry findLump(String name) {
+        return getIndex().find(name);
+    }
+}
@@ -0,0 +1,68 @@
+package com.hitpo.doommc3d.wad;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shares read-only memory mappings between {@link WadFile} instances.
+ *
+ * Opening the same file twice (auto-loader, /doomgen, client audio) reuses one mapping instead
+ * of mapping it again. Entries are weakly held: once no WadFile references a mapping, the GC
+ * is free to unmap it. Size and mtime are part of the key so an edited WAD gets a fresh mapping.
+ */
+final class WadMappings {
+    private static final Map<Key, WeakReference<MappedByteBuffer>> MAPPINGS = new ConcurrentHashMap<>();
+
+    private WadMappings() {
+    }
+
+    /**
+     * Returns a private view over a shared mapping of {@code path}, or null if the file can't be mapped
+     * (callers fall back to reading it onto the heap).
+     */
+    static ByteBuffer map(Path path) throws IOException {
+        Path real = path.toRealPath();
+        BasicFileAttributes attrs = Files.readAttributes(real, BasicFileAttributes.class);
+        if (attrs.size() > Integer.MAX_VALUE) {
+            return null;
+        }
+        Key key = new Key(real, attrs.size(), attrs.lastModifiedTime().toMillis());
+        purgeCleared();
+
+        synchronized (MAPPINGS) {
+            WeakReference<MappedByteBuffer> ref = MAPPINGS.get(key);
+            MappedByteBuffer shared = ref == null ? null : ref.get();
+            if (shared == null) {
+                try (FileChannel channel = FileChannel.open(real, StandardOpenOption.READ)) {
+                    shared = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                } catch (UnsupportedOperationException e) {
+                    return null;
+                }
+                MAPPINGS.put(key, new WeakReference<>(shared));
+            }
+            // Each WadFile gets its own position/limit/order; the duplicate keeps the mapping alive.
+            return shared.duplicate();
+        }
+    }
+
+    static int liveMappings() {
+        purgeCleared();
+        return MAPPINGS.size();
+    }
+
+    private static void purgeCleared() {
+        MAPPINGS.values().removeIf(ref -> ref.get() == null);
+    }
+
+    private record Key(Path realPath, long size, long lastModifiedMillis) {
+    }
+}
@@ -1,30 +1,141 @@
 package com.hitpo.doommc3d.wad;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+/**
+ * Bounded LRU of loaded {@link WadFile}s.
+ *
+ * Entries are keyed by canonical path plus size and mtime, so an edited WAD is detected and
+ * reloaded instead of served stale. The cache is bounded by entry count and separately by heap
+ * bytes and mapped bytes (a mapped WAD costs address space, not heap). Limits can be tuned with
+ * -Ddoommc3d.wad.cacheEntries, -Ddoommc3d.wad.cacheHeapMb and -Ddoommc3d.wad.cacheMappedMb.
+ */
 public final class WadRepository {
-    private static volatile WadFile cached;
+    private static final int MAX_ENTRIES = Integer.getInteger("doommc3d.wad.cacheEntries", 8);
+    private static final long MAX_HEAP_BYTES = Long.getLong("doommc3d.wad.cacheHeapMb", 64L) * 1024 * 1024;
+    private static final long MAX_MAPPED_BYTES = Long.getLong("doommc3d.wad.cacheMappedMb", 1024L) * 1024 * 1024;
+
+    // Access-ordered: iteration starts at the least recently used entry.
+    private static final LinkedHashMap<CacheKey, WadFile> FILES = new LinkedHashMap<>(16, 0.75f, true);
+    private static volatile Path defaultIwad;
+
+    private static long heapBytes;
+    private static long mappedBytes;
+    private static long hits;
+    private static long misses;
+    private static long evictions;
+    private static long invalidations;
 
     private WadRepository() {
     }
 
-    public static WadFile getOrLoad(String requestedName) throws IOException {
+    /**
+     * Loads the WAD (or "+"-separated WAD stack) named by {@code requestedName}; null or blank returns
+     * the default IWAD.
+     */
+    public static WadLumpSource getOrLoad(String requestedName) throws IOException {
         if (requestedName != null && !requestedName.isBlank()) {
-            return WadLoader.load(requestedName);
+            return WadLoader.loadStack(requestedName);
         }
-        WadFile local = cached;
-        if (local != null) {
-            return local;
+        Path local = defaultIwad;
+        if (local != null && Files.isRegularFile(local)) {
+            return getFile(local);
+        }
+        WadFile wad = WadLoader.loadFirstIwad();
+        defaultIwad = wad.getSource();
+        return wad;
+    }
+
+    /**
+     * Returns the cached WadFile for {@code path}, loading it on a miss or when the file changed on disk.
+     */
+    public static WadFile getFile(Path path) throws IOException {
+        Path real = path.toRealPath();
+        BasicFileAttributes attrs = Files.readAttributes(real, BasicFileAttributes.class);
+        CacheKey key = new CacheKey(real, attrs.size(), attrs.lastModifiedTime().toMillis());
+
+        synchronized (FILES) {
+            WadFile cached = FILES.get(key);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+            invalidateStale(real);
         }
-        synchronized (WadRepository.class) {
-            if (cached == null) {
-                cached = WadLoader.loadFirstIwad();
+
+        // Load outside the lock; a concurrent miss on the same file at worst loads it twice.
+        WadFile loaded = new WadFile(real);
+
+        synchronized (FILES) {
+            WadFile raced = FILES.get(key);
+            if (raced != null) {
+                return raced;
             }
-            return cached;
+            FILES.put(key, loaded);
+            account(loaded, 1);
+            evictOverBudget(key);
+            return loaded;
         }
     }
 
     public static void clearCache() {
-        cached = null;
+        synchronized (FILES) {
+            FILES.clear();
+            heapBytes = 0;
+            mappedBytes = 0;
+        }
+        defaultIwad = null;
+    }
+
+    public static CacheStats getStats() {
+        synchronized (FILES) {
+            return new CacheStats(FILES.size(), heapBytes, mappedBytes, hits, misses, evictions, invalidations);
+        }
+    }
+
+    private static void invalidateStale(Path real) {
+        Iterator<Map.Entry<CacheKey, WadFile>> it = FILES.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<CacheKey, WadFile> entry = it.next();
+            if (entry.getKey().realPath().equals(real)) {
+                account(entry.getValue(), -1);
+                it.remove();
+                invalidations++;
+            }
+        }
+    }
+
+    private static void evictOverBudget(CacheKey keep) {
+        Iterator<Map.Entry<CacheKey, WadFile>> it = FILES.entrySet().iterator();
+        while (it.hasNext() && (FILES.size() > MAX_ENTRIES || heapBytes > MAX_HEAP_BYTES || mappedBytes > MAX_MAPPED_BYTES)) {
+            Map.Entry<CacheKey, WadFile> eldest = it.next();
+            if (eldest.getKey().equals(keep)) {
+                continue;
+            }
+            account(eldest.getValue(), -1);
+            it.remove();
+            evictions++;
+        }
+    }
+
+    private static void account(WadFile wad, int sign) {
+        if (wad.isMemoryMapped()) {
+            mappedBytes += sign * wad.getByteSize();
+        } else {
+            heapBytes += sign * wad.getByteSize();
+        }
+    }
+
+    private record CacheKey(Path realPath, long size, long lastModifiedMillis) {
+    }
+
+    public record CacheStats(int entries, long heapBytes, long mappedBytes, long hits, long misses, long evictions, long invalidations) {
     }
 }
@@ -0,0 +1,93 @@
+package com.hitpo.doommc3d.wad;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * An IWAD with an ordered list of PWADs layered over it.
+ *
+ * The layers' directories are concatenated in load order and indexed once, so a later PWAD
+ * shadows earlier lumps (and whole map blocks) exactly like Doom's -file handling, and a name
+ * lookup is a single hash probe no matter how many layers there are.
+ */
+public final class WadStack implements WadLumpSource {
+    private final List<WadFile> layers;
+    private final List<WadDirectoryEntry> directory;
+    private final Map<WadDirectoryEntry, WadFile> owners;
+    private final WadIndex index;
+
+    public WadStack(WadFile base, List<WadFile> pwads) {
+        List<WadFile> all = new ArrayList<>(pwads.size() + 1);
+        all.add(base);
+        all.addAll(pwads);
+        this.layers = List.copyOf(all);
+
+        List<WadDirectoryEntry> merged = new ArrayList<>();
+        Map<WadDirectoryEntry, WadFile> owners = new IdentityHashMap<>();
+        for (WadFile layer : layers) {
+            for (WadDirectoryEntry entry : layer.getDirectory()) {
+                merged.add(entry);
+                owners.put(entry, layer);
+            }
+        }
+        this.directory = Collections.unmodifiableList(merged);
+        this.owners = owners;
+        this.index = WadIndex.build(directory);
+    }
+
+    @Override
+    public List<WadDirectoryEntry> getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public WadIndex getIndex() {
+        return index;
+    }
+
+    @Override
+    public ByteBuffer readLump(WadDirectoryEntry entry) {
+        WadFile owner = owners.get(entry);
+        if (owner == null) {
+            throw new IllegalArgumentException("Lump " + entry.getName() + " does not belong to " + getName());
+        }
+        return owner.readLump(entry);
+    }
+
+    /**
+     * The layer a lump was resolved from, or null if it isn't part of this stack.
+     */
+    public WadFile ownerOf(WadDirectoryEntry entry) {
+        return owners.get(entry);
+    }
+
+    public List<WadFile> getLayers() {
+        return layers;
+    }
+
+    @Override
+    public Path getSource() {
+        return layers.get(0).getSource();
+    }
+
+    @Override
+    public String getName() {
+        return layers.stream().map(WadFile::getName).collect(Collectors.joining("+"));
+    }
+
+    @Override
+    public long contentHash() throws IOException {
+        long hash = 17;
+        for (WadFile layer : layers) {
+            hash = hash * 31 + layer.contentHash();
+        }
+        return hash;
+    }
+}
@@ -8,10 +8,17 @@ import net.minecraft.util.math.BlockPos;
 public class BlockPlacer {
     private final ServerWorld world;
     private final BlockPos origin;
+    // When set, writes are collected here (in world coordinates) for the build job to write.
+    private final DoomVoxelGrid staging;
 
     public BlockPlacer(ServerWorld world, BlockPos origin) {
+        this(world, origin, null);
+    }
+
+    public BlockPlacer(ServerWorld world, BlockPos origin, DoomVoxelGrid staging) {
         this.world = world;
         this.origin = origin;
+        this.staging = staging;
     }
 
     public void placeDefault(int x, int y, int z) {
@@ -19,6 +26,10 @@ public class BlockPlacer {
     }
 
     public void placeBlock(int x, int y, int z, BlockState state) {
+        if (staging != null) {
+            staging.set(origin.getX() + x, origin.getY() + y, origin.getZ() + z, state);
+            return;
+        }
         BlockPos target = origin.add(x, y, z);
         world.setBlockState(target, state, 3);
     }
@@ -30,4 +41,8 @@ public class BlockPlacer {
             placeBlock(x, y, z, state);
         }
     }
+
+    public BlockState getBlockState(int x, int y, int z) {
+        return world.getBlockState(origin.add(x, y, z));
+    }
 }
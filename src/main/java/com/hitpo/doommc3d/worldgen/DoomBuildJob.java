@@ -0,0 +1,169 @@
+package com.hitpo.doommc3d.worldgen;
+
+import com.hitpo.doommc3d.interact.DoomGenConfig;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.entity.boss.BossBar;
+import net.minecraft.entity.boss.ServerBossBar;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.text.Text;
+import net.minecraft.world.World;
+
+/**
+ * A level build spread over server ticks: staged geometry is written a chunk column at a time,
+ * then the remaining stages (things, doors, triggers, spawns...) run one after another, all within
+ * a per-tick time budget ({@code BUILD_TICK_BUDGET_MS} in doommc3d_gen.properties). The requesting
+ * player sees a boss-bar progress indicator. One job runs per world; starting another cancels it.
+ */
+public final class DoomBuildJob {
+    private static final Map<RegistryKey<World>, DoomBuildJob> JOBS = new ConcurrentHashMap<>();
+
+    private final ServerWorld world;
+    private final ServerPlayerEntity player;
+    private final String mapName;
+    private final DoomVoxelGrid staging;
+    private final DoomSectionWriter.Session geometry;
+    private final List<Stage> stages = new ArrayList<>();
+    private final ServerBossBar bar;
+    private DoomChunkWarmup warmup;
+    private boolean chunksReady = true;
+    private int nextStage;
+
+    /**
+     * {@code staging} must already hold the level's geometry; it is written as-is and cleared when
+     * the job ends.
+     */
+    public DoomBuildJob(ServerWorld world, ServerPlayerEntity player, String mapName, DoomVoxelGrid staging) {
+        this.world = world;
+        this.player = player;
+        this.mapName = mapName;
+        this.staging = staging;
+        this.geometry = DoomSectionWriter.begin(world, staging);
+        this.bar = new ServerBossBar(Text.literal("Building " + mapName), BossBar.Color.RED, BossBar.Style.PROGRESS);
+    }
+
+    public static void register() {
+        ServerTickEvents.END_WORLD_TICK.register(DoomBuildJob::tickWorld);
+    }
+
+    /**
+     * Queues a stage to run (on the server thread) once the geometry and earlier stages are done.
+     */
+    public DoomBuildJob then(String name, Runnable action) {
+        stages.add(new Stage(name, action));
+        return this;
+    }
+
+    /**
+     * Holds off writing anything until every chunk {@code warmup} covers is loaded. The job stops
+     * the warm-up when it ends.
+     */
+    public DoomBuildJob awaitChunks(DoomChunkWarmup warmup) {
+        this.warmup = warmup;
+        this.chunksReady = false;
+        return this;
+    }
+
+    /**
+     * Makes {@code job} the world's active build, cancelling any build already running there.
+     */
+    public static void start(DoomBuildJob job) {
+        DoomBuildJob previous = JOBS.put(job.world.getRegistryKey(), job);
+        if (previous != null) {
+            previous.finish("[DoomMC3D] Build of " + previous.mapName + " cancelled: " + job.mapName + " requested");
+        }
+        job.bar.setPercent(0.0f);
+        job.bar.addPlayer(job.player);
+    }
+
+    public static boolean isRunning(ServerWorld world) {
+        return JOBS.containsKey(world.getRegistryKey());
+    }
+
+    /**
+     * Stops the world's active build where it is; blocks already written stay. Returns false if
+     * nothing was running.
+     */
+    public static boolean cancel(ServerWorld world) {
+        DoomBuildJob job = JOBS.remove(world.getRegistryKey());
+        if (job == null) {
+            return false;
+        }
+        job.finish("[DoomMC3D] Build of " + job.mapName + " cancelled at " + Math.round(job.progress() * 100) + "%");
+        return true;
+    }
+
+    private static void tickWorld(ServerWorld world) {
+        DoomBuildJob job = JOBS.get(world.getRegistryKey());
+        if (job == null) {
+            return;
+        }
+        long deadline = System.nanoTime() + DoomGenConfig.getBuildTickBudgetMs() * 1_000_000L;
+        boolean done;
+        try {
+            done = job.step(deadline);
+        } catch (RuntimeException e) {
+            JOBS.remove(world.getRegistryKey(), job);
+            job.finish("[DoomMC3D] Build of " + job.mapName + " failed (" + e.getMessage() + ")");
+            com.hitpo.doommc3d.util.DebugLogger.debug("DoomBuildJob.error", () -> {
+                e.printStackTrace();
+                return "[DoomMC3D] Build of " + job.mapName + " failed";
+            });
+            return;
+        }
+        job.bar.setPercent(job.progress());
+        if (done) {
+            JOBS.remove(world.getRegistryKey(), job);
+            job.finish(null);
+        }
+    }
+
+    // Chunks loaded, then geometry, then stages in order from the next tick on; at least one unit of
+    // work per tick once writing starts.
+    private boolean step(long deadlineNanos) {
+        if (!chunksReady) {
+            if (!warmup.isReady()) {
+                return false;
+            }
+            chunksReady = true;
+            com.hitpo.doommc3d.util.DebugLogger.debug("DoomBuildJob.stage", () -> "[DoomMC3D] " + mapName + ": " + warmup.chunkCount() + " chunks loaded");
+        }
+        if (!geometry.isDone()) {
+            geometry.step(deadlineNanos);
+            return false;
+        }
+        while (nextStage < stages.size()) {
+            Stage stage = stages.get(nextStage++);
+            com.hitpo.doommc3d.util.DebugLogger.debug("DoomBuildJob.stage", () -> "[DoomMC3D] " + mapName + ": " + stage.name);
+            stage.action.run();
+            if (System.nanoTime() - deadlineNanos >= 0) {
+                break;
+            }
+        }
+        return nextStage >= stages.size();
+    }
+
+    private float progress() {
+        int total = geometry.sectionCount() + stages.size();
+        return total == 0 ? 1.0f : (geometry.sectionsWritten() + nextStage) / (float) total;
+    }
+
+    private void finish(String message) {
+        if (warmup != null) {
+            warmup.stop();
+        }
+        bar.clearPlayers();
+        staging.clear();
+        if (message != null) {
+            player.sendMessage(Text.literal(message), false);
+        }
+    }
+
+    private record Stage(String name, Runnable action) {
+    }
+}
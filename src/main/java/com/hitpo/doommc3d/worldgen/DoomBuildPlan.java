@@ -0,0 +1,51 @@
+package com.hitpo.doommc3d.worldgen;
+
+import com.hitpo.doommc3d.convert.CompiledMap;
+import com.hitpo.doommc3d.convert.DoomOrigin;
+import com.hitpo.doommc3d.doommap.DoomMap;
+import com.hitpo.doommc3d.interact.DoomSecretTrigger;
+import com.hitpo.doommc3d.interact.DoomSectorGraph;
+import com.hitpo.doommc3d.interact.DoomTeleporterTrigger;
+import com.hitpo.doommc3d.state.DoomBuildFootprint;
+import com.hitpo.doommc3d.wad.WadLumpSource;
+import java.util.List;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Box;
+
+/**
+ * Everything a level build works out before touching the world: the compiled map, staged geometry
+ * and lights, and the extracted sector graph, bounds, secrets and teleporters. Prepared on the build
+ * worker and handed to the server thread, which only applies it; nothing here changes after that.
+ *
+ * @param warmup   this build's warm-up, covering {@code bounds}; started when the build was requested
+ * @param geometry staged blocks in world coordinates, stale cells of an in-place rebuild included
+ * @param lights   ceiling light blocks, written in their own batch after the geometry
+ * @param builtCells the footprint to record once the geometry is written
+ */
+public record DoomBuildPlan(
+    String mapName,
+    WadLumpSource wad,
+    CompiledMap compiled,
+    BlockPos buildOrigin,
+    DoomSectorGraph sectorGraph,
+    Box bounds,
+    DoomChunkWarmup warmup,
+    DoomVoxelGrid geometry,
+    DoomVoxelGrid lights,
+    DoomBuildFootprint.Snapshot builtCells,
+    List<DoomSecretTrigger> secrets,
+    List<DoomTeleporterTrigger> teleporters
+) {
+    public DoomBuildPlan {
+        secrets = List.copyOf(secrets);
+        teleporters = List.copyOf(teleporters);
+    }
+
+    public DoomMap map() {
+        return compiled.map();
+    }
+
+    public DoomOrigin origin() {
+        return compiled.origin();
+    }
+}
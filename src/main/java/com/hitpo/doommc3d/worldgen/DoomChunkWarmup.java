@@ -0,0 +1,122 @@
+package com.hitpo.doommc3d.worldgen;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.world.ChunkTicketType;
+import net.minecraft.server.world.ServerChunkManager;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+
+/**
+ * Keeps the chunk columns under a level's bounds loaded for the duration of a build, so block
+ * placement never loads or generates a chunk synchronously. Tickets are requested as soon as the
+ * bounds are {@link #cover covered} (while the map is still being rasterised off-thread) and the
+ * chunk system loads them in the background; the build job waits for {@link #isReady} before writing.
+ *
+ * Uses short-lived tickets renewed every tick while the warm-up is active, so nothing stays loaded,
+ * or is saved as forced, once its build {@link #stop}s it. Each build owns its own warm-up, and a
+ * world may have several active at once (a running job and the requests queued behind it).
+ */
+public final class DoomChunkWarmup {
+    private static final Map<RegistryKey<World>, Set<DoomChunkWarmup>> ACTIVE = new ConcurrentHashMap<>();
+
+    private final ServerWorld world;
+    // Null until the bounds are known; set from the build worker, read on the server thread.
+    private volatile ChunkRange range;
+
+    public DoomChunkWarmup(ServerWorld world) {
+        this.world = world;
+    }
+
+    public static void register() {
+        ServerTickEvents.END_WORLD_TICK.register(world -> {
+            Set<DoomChunkWarmup> warmups = ACTIVE.get(world.getRegistryKey());
+            if (warmups != null) {
+                for (DoomChunkWarmup warmup : warmups) {
+                    warmup.refresh();
+                }
+            }
+        });
+    }
+
+    /**
+     * Starts renewing this warm-up's tickets every tick until {@link #stop}. Nothing is loaded
+     * before {@link #cover} is called. Server thread only.
+     */
+    public void start() {
+        ACTIVE.computeIfAbsent(world.getRegistryKey(), key -> ConcurrentHashMap.newKeySet()).add(this);
+        refresh();
+    }
+
+    /**
+     * Sets the area to load to the chunk columns under {@code bounds}. Safe from any thread.
+     */
+    public void cover(Box bounds) {
+        range = new ChunkRange(
+            (int) Math.floor(bounds.minX) >> 4,
+            (int) Math.floor(bounds.minZ) >> 4,
+            (int) Math.ceil(bounds.maxX) >> 4,
+            (int) Math.ceil(bounds.maxZ) >> 4);
+    }
+
+    /**
+     * Stops renewing this warm-up's tickets; other warm-ups in the world are unaffected.
+     */
+    public void stop() {
+        Set<DoomChunkWarmup> warmups = ACTIVE.get(world.getRegistryKey());
+        if (warmups != null) {
+            warmups.remove(this);
+        }
+    }
+
+    // The tickets last a single tick, so they are added again every tick.
+    private void refresh() {
+        ChunkRange chunks = range;
+        if (chunks == null) {
+            return;
+        }
+        ServerChunkManager manager = world.getChunkManager();
+        for (int x = chunks.minX; x <= chunks.maxX; x++) {
+            for (int z = chunks.minZ; z <= chunks.maxZ; z++) {
+                manager.addTicket(ChunkTicketType.UNKNOWN, new ChunkPos(x, z), 0);
+            }
+        }
+    }
+
+    /**
+     * True once the bounds are covered and every chunk in them is loaded. Server thread only.
+     */
+    public boolean isReady() {
+        return range != null && loadedCount() == chunkCount();
+    }
+
+    public int chunkCount() {
+        ChunkRange chunks = range;
+        return chunks == null ? 0 : (chunks.maxX - chunks.minX + 1) * (chunks.maxZ - chunks.minZ + 1);
+    }
+
+    public int loadedCount() {
+        ChunkRange chunks = range;
+        if (chunks == null) {
+            return 0;
+        }
+        ServerChunkManager manager = world.getChunkManager();
+        int loaded = 0;
+        for (int x = chunks.minX; x <= chunks.maxX; x++) {
+            for (int z = chunks.minZ; z <= chunks.maxZ; z++) {
+                if (manager.isChunkLoaded(x, z)) {
+                    loaded++;
+                }
+            }
+        }
+        return loaded;
+    }
+
+    private record ChunkRange(int minX, int minZ, int maxX, int maxZ) {
+    }
+}
@@ -156,7 +156,8 @@ public final class DoomEventTriggerPlacer {
             int tag = entry.getKey();
             for (int sectorIndex : entry.getValue()) {
                 List<DoorCandidate> candidates = new ArrayList<>();
-                for (Linedef line : map.linedefs()) {
+                for (int lineIndex : map.data().topology().sectorLines(sectorIndex)) {
+                    Linedef line = map.linedefs()[lineIndex];
                     int rightSector = getSectorFromSide(sidedefs, line.rightSidedef());
                     int leftSector = getSectorFromSide(sidedefs, line.leftSidedef());
 
@@ -1,6 +1,8 @@
 package com.hitpo.doommc3d.worldgen;
 
 import com.hitpo.doommc3d.interact.DoomLevelBoundsRegistry;
+import com.hitpo.doommc3d.interact.DoomSectorGraph;
+import com.hitpo.doommc3d.interact.DoomSectorGraphRegistry;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
@@ -33,6 +35,7 @@ public final class DoomHazardSystem {
             return;
         }
 
+        DoomSectorGraph graph = DoomSectorGraphRegistry.get(world);
         int now = (int) world.getTime();
         for (ServerPlayerEntity player : world.getPlayers()) {
             if (!bounds.contains(player.getX(), player.getY(), player.getZ())) {
@@ -41,7 +44,7 @@ public final class DoomHazardSystem {
             if (player.isCreative() || player.isSpectator()) {
                 continue;
             }
-            applyHazardAtFeet(world, player, now);
+            applyHazardAtFeet(world, graph, player, now);
         }
 
         // Optionally damage Doom mobs too (keeps it Doom-authentic and avoids "safe" nukage).
@@ -49,7 +52,7 @@ public final class DoomHazardSystem {
             if (entity instanceof PlayerEntity) {
                 continue;
             }
-            applyHazardAtFeet(world, entity, now);
+            applyHazardAtFeet(world, graph, entity, now);
         }
     }
 
@@ -62,13 +65,17 @@ public final class DoomHazardSystem {
         return tags.contains(DoomThingSpawner.TAG_SPAWNED);
     }
 
-    private static void applyHazardAtFeet(ServerWorld world, LivingEntity entity, int now) {
+    private static void applyHazardAtFeet(ServerWorld world, DoomSectorGraph graph, LivingEntity entity, int now) {
         int next = NEXT_DAMAGE_TICK.getOrDefault(entity.getUuid(), 0);
         if (now < next) {
             return;
         }
 
         BlockPos feet = entity.getBlockPos();
+        // Hazard floors are only ever placed on sector cells; skip the block read anywhere else.
+        if (graph != null && graph.raster() != null && graph.sectorAt(feet) < 0) {
+            return;
+        }
         BlockState below = world.getBlockState(feet.down());
 
         Hazard hazard = hazardForBlock(below);
@@ -0,0 +1,298 @@
+package com.hitpo.doommc3d.worldgen;
+
+import com.hitpo.doommc3d.DoomConstants;
+import com.hitpo.doommc3d.convert.CompiledMap;
+import com.hitpo.doommc3d.convert.PaletteMapper;
+import com.hitpo.doommc3d.convert.SectorRasterizer;
+import com.hitpo.doommc3d.wad.WadLoader;
+import com.hitpo.doommc3d.wad.WadLumpSource;
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import net.minecraft.block.BlockState;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.NbtOps;
+import net.minecraft.nbt.NbtSizeTracker;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+
+/**
+ * Prebaked level blocks under mods/doommc3d/snapshots/, keyed like the compiled-map cache by WAD
+ * content hash, map name and scale. The first conversion of a map saves its staged blocks (geometry,
+ * roof and lights) as compressed NBT, one palette-compressed entry per chunk section relative to
+ * the build origin; later builds stage those sections directly and skip rasterisation. Sections are
+ * pasted whole when the new origin has the same offset within a chunk section as the saved one.
+ *
+ * Off by default; enable with {@code -Ddoommc3d.levelSnapshots=true}. A snapshot records the
+ * palette rules and rasteriser version it was built with and is rebuilt when either changes.
+ */
+public final class DoomLevelSnapshot {
+    private static final int FORMAT_VERSION = 2;
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("doommc3d.levelSnapshots", "false"));
+    private static final int SECTION_VOLUME = 16 * 16 * 16;
+    // Local palette entry for a cell the build never staged.
+    private static final int UNSET = -1;
+
+    private static final Codec<Section> SECTION_CODEC = RecordCodecBuilder.create(instance ->
+        instance.group(
+            Codec.LONG.fieldOf("section").forGetter(Section::key),
+            Codec.INT_STREAM.fieldOf("palette").forGetter(section -> Arrays.stream(section.palette())),
+            Codec.LONG_STREAM.fieldOf("data").forGetter(section -> Arrays.stream(section.data()))
+        ).apply(instance, (key, palette, data) -> new Section(key, palette.toArray(), data.toArray()))
+    );
+
+    private static final Codec<Level> LEVEL_CODEC = RecordCodecBuilder.create(instance ->
+        instance.group(
+            Codec.INT.fieldOf("version").forGetter(Level::version),
+            Codec.INT.fieldOf("compiled_version").forGetter(Level::compiledVersion),
+            Codec.INT.fieldOf("rasterizer_version").forGetter(Level::rasterizerVersion),
+            Codec.LONG.fieldOf("palette_rules").forGetter(Level::paletteRules),
+            Codec.INT.fieldOf("scale").forGetter(Level::scale),
+            Codec.INT.fieldOf("align_x").forGetter(Level::alignX),
+            Codec.INT.fieldOf("align_y").forGetter(Level::alignY),
+            Codec.INT.fieldOf("align_z").forGetter(Level::alignZ),
+            BlockState.CODEC.listOf().fieldOf("palette").forGetter(Level::palette),
+            SECTION_CODEC.listOf().fieldOf("sections").forGetter(Level::sections)
+        ).apply(instance, Level::new)
+    );
+
+    private DoomLevelSnapshot() {
+    }
+
+    public static Path getDirectory() {
+        return WadLoader.getDataDirectory().resolve("snapshots");
+    }
+
+    /**
+     * Stages the saved blocks of {@code mapName} into {@code grid} as built at {@code buildOrigin}.
+     * Returns false, leaving the grid alone, when snapshots are off or none usable exists.
+     */
+    public static boolean load(WadLumpSource wad, String mapName, BlockPos buildOrigin, DoomVoxelGrid grid) {
+        if (!ENABLED) {
+            return false;
+        }
+        Path file;
+        try {
+            file = snapshotFile(wad, mapName);
+        } catch (IOException e) {
+            return false;
+        }
+        Level level = read(file);
+        if (level == null) {
+            return false;
+        }
+        BlockState[] palette = level.palette().toArray(new BlockState[0]);
+        BlockState[] cells = new BlockState[SECTION_VOLUME];
+        int originSectionX = buildOrigin.getX() >> 4;
+        int originSectionY = buildOrigin.getY() >> 4;
+        int originSectionZ = buildOrigin.getZ() >> 4;
+        boolean aligned = (buildOrigin.getX() & 15) == level.alignX()
+            && (buildOrigin.getY() & 15) == level.alignY()
+            && (buildOrigin.getZ() & 15) == level.alignZ();
+        for (Section section : level.sections()) {
+            section.decode(palette, cells);
+            int relX = ChunkSectionPos.unpackX(section.key());
+            int relY = ChunkSectionPos.unpackY(section.key());
+            int relZ = ChunkSectionPos.unpackZ(section.key());
+            if (aligned) {
+                grid.pasteSection(ChunkSectionPos.asLong(originSectionX + relX, originSectionY + relY, originSectionZ + relZ), cells);
+                continue;
+            }
+            // Different offset within the section: shift cell by cell.
+            int baseX = buildOrigin.getX() + (relX << 4) - level.alignX();
+            int baseY = buildOrigin.getY() + (relY << 4) - level.alignY();
+            int baseZ = buildOrigin.getZ() + (relZ << 4) - level.alignZ();
+            for (int index = 0; index < SECTION_VOLUME; index++) {
+                if (cells[index] != null) {
+                    grid.set(baseX + (index & 15), baseY + (index >> 8), baseZ + ((index >> 4) & 15), cells[index]);
+                }
+            }
+        }
+        com.hitpo.doommc3d.util.DebugLogger.debug("DoomLevelSnapshot", () -> "[DoomMC3D] Pasted " + level.sections().size() + " sections from "
+            + file.getFileName() + (aligned ? "" : " (shifted)"));
+        return true;
+    }
+
+    /**
+     * Saves {@code grid}, staged for a build at {@code buildOrigin}, as the snapshot of
+     * {@code mapName}. Does nothing when snapshots are off.
+     */
+    public static void save(WadLumpSource wad, String mapName, BlockPos buildOrigin, DoomVoxelGrid grid) {
+        if (!ENABLED) {
+            return;
+        }
+        Path file;
+        try {
+            file = snapshotFile(wad, mapName);
+        } catch (IOException e) {
+            return;
+        }
+        List<BlockState> palette = new ArrayList<>();
+        Map<BlockState, Integer> paletteIds = new IdentityHashMap<>();
+        List<Section> sections = new ArrayList<>();
+        BlockState[] cells = new BlockState[SECTION_VOLUME];
+        int originSectionX = buildOrigin.getX() >> 4;
+        int originSectionY = buildOrigin.getY() >> 4;
+        int originSectionZ = buildOrigin.getZ() >> 4;
+        for (long key : grid.sectionKeys()) {
+            grid.readSection(key, cells);
+            long relative = ChunkSectionPos.asLong(
+                ChunkSectionPos.unpackX(key) - originSectionX,
+                ChunkSectionPos.unpackY(key) - originSectionY,
+                ChunkSectionPos.unpackZ(key) - originSectionZ
+            );
+            sections.add(Section.encode(relative, cells, palette, paletteIds));
+        }
+        Level level = new Level(FORMAT_VERSION, CompiledMap.FORMAT_VERSION, SectorRasterizer.OUTPUT_VERSION, PaletteMapper.rulesHash(), DoomConstants.DOOM_TO_MC_SCALE,
+            buildOrigin.getX() & 15, buildOrigin.getY() & 15, buildOrigin.getZ() & 15, palette, sections);
+        try {
+            NbtCompound nbt = (NbtCompound) LEVEL_CODEC.encodeStart(NbtOps.INSTANCE, level).getOrThrow();
+            Files.createDirectories(file.getParent());
+            Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            NbtIo.writeCompressed(nbt, tmp);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            com.hitpo.doommc3d.util.DebugLogger.debug("DoomLevelSnapshot", () -> "[DoomMC3D] Saved " + sections.size() + " sections ("
+                + palette.size() + " block states) to " + file.getFileName());
+        } catch (IOException | RuntimeException e) {
+            com.hitpo.doommc3d.util.DebugLogger.debug("DoomLevelSnapshot", () -> "[DoomMC3D] Could not write " + file.getFileName() + ": " + e);
+        }
+    }
+
+    private static Path snapshotFile(WadLumpSource wad, String mapName) throws IOException {
+        String name = String.format(Locale.ROOT, "%016x_%s_%d.nbt", wad.contentHash(), mapName.toUpperCase(Locale.ROOT), DoomConstants.DOOM_TO_MC_SCALE);
+        return getDirectory().resolve(name);
+    }
+
+    private static Level read(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            NbtCompound nbt = NbtIo.readCompressed(file, NbtSizeTracker.ofUnlimitedBytes());
+            Optional<Level> level = LEVEL_CODEC.parse(NbtOps.INSTANCE, nbt).result();
+            if (level.isEmpty()
+                || !level.get().isWellFormed()
+                || level.get().version() != FORMAT_VERSION
+                || level.get().compiledVersion() != CompiledMap.FORMAT_VERSION
+                || level.get().rasterizerVersion() != SectorRasterizer.OUTPUT_VERSION
+                || level.get().paletteRules() != PaletteMapper.rulesHash()
+                || level.get().scale() != DoomConstants.DOOM_TO_MC_SCALE) {
+                com.hitpo.doommc3d.util.DebugLogger.debug("DoomLevelSnapshot", () -> "[DoomMC3D] Ignoring stale " + file.getFileName());
+                return null;
+            }
+            return level.get();
+        } catch (IOException | RuntimeException e) {
+            com.hitpo.doommc3d.util.DebugLogger.debug("DoomLevelSnapshot", () -> "[DoomMC3D] Discarding unreadable " + file.getFileName() + ": " + e);
+            return null;
+        }
+    }
+
+    // Bits per cell for a section palette of the given size; a single-entry palette needs none.
+    private static int bitsFor(int paletteSize) {
+        return paletteSize <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(paletteSize - 1);
+    }
+
+    private record Level(int version, int compiledVersion, int rasterizerVersion, long paletteRules, int scale,
+                         int alignX, int alignY, int alignZ, List<BlockState> palette, List<Section> sections) {
+        boolean isWellFormed() {
+            for (Section section : sections) {
+                if (!section.isWellFormed(palette.size())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * One section relative to the build origin's section: its own palette of level palette ids
+     * ({@link #UNSET} for cells the build never staged) and the cells' palette indices packed into
+     * longs, as many whole entries per long as fit.
+     */
+    private record Section(long key, int[] palette, long[] data) {
+        static Section encode(long key, BlockState[] cells, List<BlockState> levelPalette, Map<BlockState, Integer> levelIds) {
+            int[] local = new int[SECTION_VOLUME];
+            int[] palette = new int[8];
+            int size = 0;
+            for (int index = 0; index < SECTION_VOLUME; index++) {
+                int id = UNSET;
+                if (cells[index] != null) {
+                    id = levelIds.computeIfAbsent(cells[index], state -> {
+                        levelPalette.add(state);
+                        return levelPalette.size() - 1;
+                    });
+                }
+                int entry = 0;
+                while (entry < size && palette[entry] != id) {
+                    entry++;
+                }
+                if (entry == size) {
+                    if (size == palette.length) {
+                        palette = Arrays.copyOf(palette, size * 2);
+                    }
+                    palette[size++] = id;
+                }
+                local[index] = entry;
+            }
+            int bits = bitsFor(size);
+            if (bits == 0) {
+                return new Section(key, Arrays.copyOf(palette, size), new long[0]);
+            }
+            int perLong = 64 / bits;
+            long[] data = new long[(SECTION_VOLUME + perLong - 1) / perLong];
+            for (int index = 0; index < SECTION_VOLUME; index++) {
+                data[index / perLong] |= (long) local[index] << ((index % perLong) * bits);
+            }
+            return new Section(key, Arrays.copyOf(palette, size), data);
+        }
+
+        boolean isWellFormed(int levelPaletteSize) {
+            for (int id : palette) {
+                if (id != UNSET && (id < 0 || id >= levelPaletteSize)) {
+                    return false;
+                }
+            }
+            int bits = bitsFor(palette.length);
+            if (bits == 0) {
+                return data.length == 0;
+            }
+            int perLong = 64 / bits;
+            if (data.length != (SECTION_VOLUME + perLong - 1) / perLong) {
+                return false;
+            }
+            long mask = (1L << bits) - 1;
+            for (int index = 0; index < SECTION_VOLUME; index++) {
+                if (((data[index / perLong] >>> ((index % perLong) * bits)) & mask) >= palette.length) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void decode(BlockState[] levelPalette, BlockState[] cells) {
+            int bits = bitsFor(palette.length);
+            if (bits == 0) {
+                int id = palette.length == 0 ? UNSET : palette[0];
+                Arrays.fill(cells, id == UNSET ? null : levelPalette[id]);
+                return;
+            }
+            int perLong = 64 / bits;
+            long mask = (1L << bits) - 1;
+            for (int index = 0; index < SECTION_VOLUME; index++) {
+                int id = palette[(int) ((data[index / perLong] >>> ((index % perLong) * bits)) & mask)];
+                cells[index] = id == UNSET ? null : levelPalette[id];
+            }
+        }
+    }
+}
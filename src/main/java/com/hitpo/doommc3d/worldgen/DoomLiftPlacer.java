@@ -1,8 +1,11 @@
 package com.hitpo.doommc3d.worldgen;
 
+import com.hitpo.doommc3d.convert.CompiledMap;
 import com.hitpo.doommc3d.convert.DoomOrigin;
 import com.hitpo.doommc3d.convert.DoomToMCScale;
+import com.hitpo.doommc3d.convert.ScanlineRasterizer;
 import com.hitpo.doommc3d.doommap.DoomMap;
+import com.hitpo.doommc3d.doommap.DoomMapTopology;
 import com.hitpo.doommc3d.doommap.Linedef;
 import com.hitpo.doommc3d.doommap.Sector;
 import com.hitpo.doommc3d.doommap.Sidedef;
@@ -105,24 +108,14 @@ public final class DoomLiftPlacer {
 
     private static DoomLiftSystem.Lift buildLiftForSector(DoomMap map, int sectorIndex, DoomOrigin origin, BlockPos buildOrigin) {
         Sector sector = map.sectors()[sectorIndex];
-        List<Vertex> polygon = ThingPlacerSectorGeometry.buildSectorPolygon(map, sectorIndex);
-        if (polygon.isEmpty()) {
+        DoomMapTopology topology = map.data().topology();
+        if (topology.sectorLoops(sectorIndex).length == 0) {
             return null;
         }
 
-        int minX = polygon.stream().mapToInt(Vertex::x).min().orElse(0);
-        int maxX = polygon.stream().mapToInt(Vertex::x).max().orElse(0);
-        int minZ = polygon.stream().mapToInt(Vertex::y).min().orElse(0);
-        int maxZ = polygon.stream().mapToInt(Vertex::y).max().orElse(0);
-
         int originBlockX = origin.originBlockX();
         int originBlockZ = origin.originBlockZ();
 
-        int startX = DoomToMCScale.toBlock(minX) - originBlockX;
-        int endX = DoomToMCScale.toBlock(maxX) - originBlockX;
-        int startZ = originBlockZ - DoomToMCScale.toBlock(maxZ);
-        int endZ = originBlockZ - DoomToMCScale.toBlock(minZ);
-
         int topY = DoomToMCScale.toBlock(sector.floorHeight());
         int ceilingY = DoomToMCScale.toBlock(sector.ceilingHeight());
 
@@ -132,13 +125,12 @@ public final class DoomLiftPlacer {
             bottomY = topY;
         }
 
-        List<DoomLiftSystem.FloorCell> floorCells = new ArrayList<>();
-        for (int blockX = startX; blockX <= endX; blockX++) {
-            for (int blockZ = startZ; blockZ <= endZ; blockZ++) {
-                double doomX = toDoomX(blockX, originBlockX);
-                double doomZ = toDoomZ(blockZ, originBlockZ);
-                if (ThingPlacerSectorGeometry.containsPoint(polygon, doomX, doomZ)) {
-                    floorCells.add(new DoomLiftSystem.FloorCell(blockX, blockZ));
+        CompiledMap.SectorMask mask = ScanlineRasterizer.fill(map.data(), topology.sectorLoops(sectorIndex), originBlockX, originBlockZ);
+        List<DoomLiftSystem.FloorCell> floorCells = new ArrayList<>(mask.cellCount());
+        for (int x = 0; x < mask.width(); x++) {
+            for (int z = 0; z < mask.depth(); z++) {
+                if (mask.contains(mask.minX() + x, mask.minZ() + z)) {
+                    floorCells.add(new DoomLiftSystem.FloorCell(mask.minX() + x, mask.minZ() + z));
                 }
             }
         }
@@ -162,7 +154,9 @@ public final class DoomLiftPlacer {
         return new DoomLiftSystem.Lift(
             floorCells,
             boundaryColumns,
-            polygon,
+            topology,
+            map.data().bsp(),
+            sectorIndex,
             originBlockX,
             originBlockZ,
             buildOrigin,
@@ -210,8 +204,8 @@ public final class DoomLiftPlacer {
         int originBlockX = origin.originBlockX();
         int originBlockZ = origin.originBlockZ();
 
-        for (Linedef linedef : linedefs) {
-            WallSlice slice = buildWallSliceForSector(linedef, sidedefs, sectorIndex);
+        for (int line : map.data().topology().sectorLines(sectorIndex)) {
+            WallSlice slice = buildWallSliceForSector(linedefs[line], sidedefs, sectorIndex);
             if (slice == null) {
                 continue;
             }
@@ -278,7 +272,8 @@ public final class DoomLiftPlacer {
         int lowest = Integer.MAX_VALUE;
         boolean found = false;
 
-        for (Linedef linedef : linedefs) {
+        for (int line : map.data().topology().sectorLines(sectorIndex)) {
+            Linedef linedef = linedefs[line];
             int rightSector = getSectorFromSide(sidedefs, linedef.rightSidedef());
             int leftSector = getSectorFromSide(sidedefs, linedef.leftSidedef());
 
@@ -430,14 +425,4 @@ public final class DoomLiftPlacer {
         }
         return points;
     }
-
-    private static double toDoomX(int blockX, int originBlockX) {
-        return (blockX + originBlockX) * (double) com.hitpo.doommc3d.DoomConstants.DOOM_TO_MC_SCALE
-            + com.hitpo.doommc3d.DoomConstants.DOOM_TO_MC_SCALE / 2.0;
-    }
-
-    private static double toDoomZ(int blockZ, int originBlockZ) {
-        return (originBlockZ - blockZ) * (double) com.hitpo.doommc3d.DoomConstants.DOOM_TO_MC_SCALE
-            + com.hitpo.doommc3d.DoomConstants.DOOM_TO_MC_SCALE / 2.0;
-    }
 }
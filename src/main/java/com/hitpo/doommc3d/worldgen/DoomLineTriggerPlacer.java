@@ -6,6 +6,7 @@ import com.hitpo.doommc3d.doommap.DoomMap;
 import com.hitpo.doommc3d.doommap.Linedef;
 import com.hitpo.doommc3d.doommap.Vertex;
 import com.hitpo.doommc3d.interact.DoomLineTrigger;
+import com.hitpo.doommc3d.interact.DoomLineTriggerIndex;
 import com.hitpo.doommc3d.interact.DoomLineTriggerRegistry;
 import com.hitpo.doommc3d.interact.DoomTriggerAction;
 import com.hitpo.doommc3d.interact.TriggerActivation;
@@ -83,8 +84,10 @@ public final class DoomLineTriggerPlacer {
         List<DoomLineTrigger> triggers = new ArrayList<>();
         int id = 1;
         Vertex[] vertices = map.vertices();
+        Linedef[] linedefs = map.linedefs();
 
-        for (Linedef line : map.linedefs()) {
+        for (int lineIndex = 0; lineIndex < linedefs.length; lineIndex++) {
+            Linedef line = linedefs[lineIndex];
             int special = line.specialType();
             int tag = line.sectorTag();
 
@@ -119,11 +122,13 @@ public final class DoomLineTriggerPlacer {
             double x2 = buildOrigin.getX() + rx2 + 0.5;
             double z2 = buildOrigin.getZ() + rz2 + 0.5;
 
-            triggers.add(new DoomLineTrigger(id++, type, x1, z1, x2, z2, action, activation.isOnce(), cooldown));
+            triggers.add(new DoomLineTrigger(id++, lineIndex, type, x1, z1, x2, z2, action, activation.isOnce(), cooldown));
         }
 
         DoomLineTriggerRegistry.clear(world);
-        DoomLineTriggerRegistry.set(world, triggers);
+        DoomLineTriggerIndex index = new DoomLineTriggerIndex(map.data().blockmap(), linedefs.length, triggers,
+            buildOrigin.getX() - origin.originBlockX(), buildOrigin.getZ() + origin.originBlockZ());
+        DoomLineTriggerRegistry.set(world, triggers, index);
         com.hitpo.doommc3d.util.DebugLogger.debug("DoomLineTriggerPlacer", () -> "[DoomMC3D] Registered " + triggers.size() + " line triggers (Task #5: Extended Triggers)");
     }
 
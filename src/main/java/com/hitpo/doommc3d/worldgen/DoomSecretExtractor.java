@@ -3,15 +3,11 @@ package com.hitpo.doommc3d.worldgen;
 import com.hitpo.doommc3d.convert.DoomOrigin;
 import com.hitpo.doommc3d.convert.DoomToMCScale;
 import com.hitpo.doommc3d.doommap.DoomMap;
-import com.hitpo.doommc3d.doommap.Linedef;
 import com.hitpo.doommc3d.doommap.Sector;
-import com.hitpo.doommc3d.doommap.Sidedef;
 import com.hitpo.doommc3d.doommap.Vertex;
 import com.hitpo.doommc3d.interact.DoomSecretTrigger;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Box;
 
@@ -26,7 +22,7 @@ public final class DoomSecretExtractor {
             if (sector.type() != 9) { // Doom "secret"
                 continue;
             }
-            List<Vertex> polygon = buildSectorPolygon(map, sectorIndex);
+            List<Vertex> polygon = map.data().topology().sectorPolygonVertices(sectorIndex);
             if (polygon.isEmpty()) {
                 continue;
             }
@@ -56,70 +52,4 @@ public final class DoomSecretExtractor {
         }
         return out;
     }
-
-    private static List<Vertex> buildSectorPolygon(DoomMap map, int sectorIndex) {
-        List<Edge> edges = collectSectorEdges(map, sectorIndex);
-        if (edges.isEmpty()) {
-            return List.of();
-        }
-        List<Edge> ordered = orderEdges(edges);
-        Vertex[] vertices = map.vertices();
-        List<Vertex> polygon = new ArrayList<>();
-        for (Edge edge : ordered) {
-            polygon.add(vertices[edge.start]);
-        }
-        return polygon;
-    }
-
-    private static List<Edge> collectSectorEdges(DoomMap map, int sectorIndex) {
-        List<Edge> edges = new ArrayList<>();
-        Linedef[] linedefs = map.linedefs();
-        Sidedef[] sidedefs = map.sidedefs();
-        for (Linedef linedef : linedefs) {
-            int rightSector = getSectorFromSide(sidedefs, linedef.rightSidedef());
-            int leftSector = getSectorFromSide(sidedefs, linedef.leftSidedef());
-            if (rightSector == sectorIndex) {
-                edges.add(new Edge(linedef.startVertex(), linedef.endVertex()));
-            } else if (leftSector == sectorIndex) {
-                edges.add(new Edge(linedef.endVertex(), linedef.startVertex()));
-            }
-        }
-        return edges;
-    }
-
-    private static List<Edge> orderEdges(List<Edge> edges) {
-        List<Edge> ordered = new ArrayList<>();
-        Set<Edge> used = new HashSet<>();
-        ordered.add(edges.get(0));
-        used.add(edges.get(0));
-        while (ordered.size() < edges.size()) {
-            Edge current = ordered.get(ordered.size() - 1);
-            Edge next = findNextEdge(edges, used, current.end);
-            if (next == null) {
-                break;
-            }
-            ordered.add(next);
-            used.add(next);
-        }
-        return ordered;
-    }
-
-    private static Edge findNextEdge(List<Edge> edges, Set<Edge> used, int startVertex) {
-        for (Edge edge : edges) {
-            if (!used.contains(edge) && edge.start == startVertex) {
-                return edge;
-            }
-        }
-        return null;
-    }
-
-    private static int getSectorFromSide(Sidedef[] sidedefs, int sideIndex) {
-        if (sideIndex < 0 || sideIndex >= sidedefs.length) {
-            return -1;
-        }
-        return sidedefs[sideIndex].sector();
-    }
-
-    private record Edge(int start, int end) {
-    }
 }
@@ -0,0 +1,183 @@
+package com.hitpo.doommc3d.worldgen;
+
+import java.util.EnumSet;
+import java.util.Set;
+import net.fabricmc.fabric.api.networking.v1.PlayerLookup;
+import net.minecraft.block.BlockState;
+import net.minecraft.network.packet.s2c.play.ChunkDataS2CPacket;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerLightingProvider;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.Heightmap;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.WorldChunk;
+import net.minecraft.world.chunk.light.ChunkLightProvider;
+
+/**
+ * Writes a {@link DoomVoxelGrid} straight into chunk section palettes instead of going through
+ * {@code setBlockState(pos, state, 3)} per block: no neighbour updates or per-block packets, heightmaps
+ * rebuilt once per chunk, and each touched chunk resent to its watchers as one full-chunk packet.
+ *
+ * Cells whose old or new state carries a block entity still go through {@code setBlockState}, so
+ * block entities are created and removed normally.
+ *
+ * {@link #writeLights} is the same write for a grid of light sources, with the per-cell light
+ * checks replaced by one relight of each touched chunk.
+ */
+public final class DoomSectionWriter {
+    // -Ddoommc3d.bulkPlace=false writes staged blocks through setBlockState one by one instead.
+    private static final boolean BULK = Boolean.parseBoolean(System.getProperty("doommc3d.bulkPlace", "true"));
+    private static final Set<Heightmap.Type> HEIGHTMAPS = EnumSet.of(
+        Heightmap.Type.WORLD_SURFACE,
+        Heightmap.Type.MOTION_BLOCKING,
+        Heightmap.Type.MOTION_BLOCKING_NO_LEAVES,
+        Heightmap.Type.OCEAN_FLOOR
+    );
+
+    private DoomSectionWriter() {
+    }
+
+    /**
+     * Applies a grid of light-emitting blocks at once without queueing a light check per cell;
+     * instead each touched chunk is relit from its light sources in one pass. Cells that replace
+     * another light source are still checked individually so its old light is removed. Returns the
+     * number of cells whose state actually changed.
+     */
+    public static long writeLights(ServerWorld world, DoomVoxelGrid grid) {
+        Session session = new Session(world, grid, true);
+        session.step(Long.MAX_VALUE);
+        return session.changed();
+    }
+
+    /**
+     * Starts a resumable write of {@code grid}, which must not change until the session is done.
+     */
+    public static Session begin(ServerWorld world, DoomVoxelGrid grid) {
+        return new Session(world, grid, false);
+    }
+
+    /**
+     * Writes a grid a chunk column at a time, so a build can spread the work over several ticks.
+     */
+    public static final class Session {
+        private final ServerWorld world;
+        private final DoomVoxelGrid grid;
+        private final ServerLightingProvider light;
+        private final boolean relightChunks;
+        private final long[] keys;
+        private final BlockState[] cells = new BlockState[16 * 16 * 16];
+        private final BlockPos.Mutable pos = new BlockPos.Mutable();
+        private int next;
+        private long changed;
+
+        private Session(ServerWorld world, DoomVoxelGrid grid, boolean relightChunks) {
+            this.world = world;
+            this.grid = grid;
+            this.light = world.getChunkManager().getLightingProvider();
+            this.relightChunks = relightChunks;
+            this.keys = grid.sectionKeys();
+        }
+
+        /**
+         * Writes whole chunk columns until {@code deadlineNanos} ({@link System#nanoTime}) passes.
+         * Always makes progress. Returns true once every section has been written.
+         */
+        public boolean step(long deadlineNanos) {
+            while (next < keys.length) {
+                int chunkX = ChunkSectionPos.unpackX(keys[next]);
+                int chunkZ = ChunkSectionPos.unpackZ(keys[next]);
+                WorldChunk chunk = world.getChunk(chunkX, chunkZ);
+                boolean chunkChanged = false;
+                while (next < keys.length
+                    && ChunkSectionPos.unpackX(keys[next]) == chunkX
+                    && ChunkSectionPos.unpackZ(keys[next]) == chunkZ) {
+                    grid.readSection(keys[next], cells);
+                    chunkChanged |= writeSection(chunk, chunkX, ChunkSectionPos.unpackY(keys[next]), chunkZ);
+                    next++;
+                }
+                if (chunkChanged) {
+                    finishChunk(chunk);
+                }
+                if (System.nanoTime() - deadlineNanos >= 0) {
+                    break;
+                }
+            }
+            return isDone();
+        }
+
+        public boolean isDone() {
+            return next >= keys.length;
+        }
+
+        public int sectionsWritten() {
+            return next;
+        }
+
+        public int sectionCount() {
+            return keys.length;
+        }
+
+        public long changed() {
+            return changed;
+        }
+
+        // True if any cell was written directly into the section's palette.
+        private boolean writeSection(WorldChunk chunk, int sectionX, int sectionY, int sectionZ) {
+            int index = world.sectionCoordToIndex(sectionY);
+            if (index < 0 || index >= chunk.getSectionArray().length) {
+                return false;
+            }
+            ChunkSection section = chunk.getSection(index);
+            boolean wasEmpty = section.isEmpty();
+            boolean wrote = false;
+            int baseX = sectionX << 4;
+            int baseY = sectionY << 4;
+            int baseZ = sectionZ << 4;
+            for (int cell = 0; cell < cells.length; cell++) {
+                BlockState state = cells[cell];
+                if (state == null) {
+                    continue;
+                }
+                int x = cell & 15;
+                int y = cell >> 8;
+                int z = (cell >> 4) & 15;
+                BlockState old = section.getBlockState(x, y, z);
+                if (old == state) {
+                    continue;
+                }
+                pos.set(baseX + x, baseY + y, baseZ + z);
+                changed++;
+                if (!BULK || old.hasBlockEntity() || state.hasBlockEntity()) {
+                    world.setBlockState(pos, state, 3);
+                    continue;
+                }
+                section.setBlockState(x, y, z, state, false);
+                wrote = true;
+                // Queued on the light engine, which works through the whole batch off-thread. When the
+                // chunk is relit afterwards only a removed light source needs its own check.
+                if (ChunkLightProvider.needsLightUpdate(old, state) && (!relightChunks || old.getLuminance() > 0)) {
+                    light.checkBlock(pos);
+                }
+            }
+            if (wrote && wasEmpty != section.isEmpty()) {
+                light.setSectionStatus(ChunkSectionPos.from(sectionX, sectionY, sectionZ), section.isEmpty());
+            }
+            return wrote;
+        }
+
+        private void finishChunk(WorldChunk chunk) {
+            Heightmap.populateHeightmaps(chunk, HEIGHTMAPS);
+            chunk.markNeedsSaving();
+            if (relightChunks) {
+                // Spreads every light source in the chunk; changed levels reach clients as light updates.
+                light.light(chunk, false);
+            }
+            ChunkDataS2CPacket packet = new ChunkDataS2CPacket(chunk, light, null, null);
+            for (ServerPlayerEntity player : PlayerLookup.tracking(world, chunk.getPos())) {
+                player.networkHandler.sendPacket(packet);
+            }
+        }
+    }
+}
@@ -11,7 +11,6 @@ import com.hitpo.doommc3d.doommap.Vertex;
 import com.hitpo.doommc3d.interact.DoomTeleporterTrigger;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -90,7 +89,7 @@ public final class DoomTeleporterExtractor {
             if (thing.type() != 14) { // Doom teleport destination
                 continue;
             }
-            int sectorIndex = findSectorForThing(map, thing);
+            int sectorIndex = map.data().topology().sectorAt(thing.x(), thing.y());
             if (sectorIndex < 0) {
                 continue;
             }
@@ -124,94 +123,6 @@ public final class DoomTeleporterExtractor {
         return sidedefs[sideIndex].sector();
     }
 
-    private static int findSectorForThing(DoomMap map, Thing thing) {
-        double x = thing.x();
-        double y = thing.y();
-        for (int sectorIndex = 0; sectorIndex < map.sectors().length; sectorIndex++) {
-            List<Vertex> polygon = buildSectorPolygon(map, sectorIndex);
-            if (polygon.isEmpty()) {
-                continue;
-            }
-            if (containsPoint(polygon, x, y)) {
-                return sectorIndex;
-            }
-        }
-        return -1;
-    }
-
-    private static boolean containsPoint(List<Vertex> polygon, double x, double y) {
-        boolean inside = false;
-        for (int i = 0, j = polygon.size() - 1; i < polygon.size(); j = i++) {
-            Vertex vi = polygon.get(i);
-            Vertex vj = polygon.get(j);
-            boolean intersect = ((vi.y() > y) != (vj.y() > y))
-                && (x < (vj.x() - vi.x()) * (y - vi.y()) / (double) (vj.y() - vi.y()) + vi.x());
-            if (intersect) {
-                inside = !inside;
-            }
-        }
-        return inside;
-    }
-
-    private static List<Vertex> buildSectorPolygon(DoomMap map, int sectorIndex) {
-        List<Edge> edges = collectSectorEdges(map, sectorIndex);
-        if (edges.isEmpty()) {
-            return List.of();
-        }
-        List<Edge> ordered = orderEdges(edges);
-        Vertex[] vertices = map.vertices();
-        List<Vertex> polygon = new ArrayList<>();
-        for (Edge edge : ordered) {
-            polygon.add(vertices[edge.start]);
-        }
-        return polygon;
-    }
-
-    private static List<Edge> collectSectorEdges(DoomMap map, int sectorIndex) {
-        List<Edge> edges = new ArrayList<>();
-        Linedef[] linedefs = map.linedefs();
-        Sidedef[] sidedefs = map.sidedefs();
-        for (Linedef linedef : linedefs) {
-            int rightSector = getSectorFromSide(sidedefs, linedef.rightSidedef());
-            int leftSector = getSectorFromSide(sidedefs, linedef.leftSidedef());
-            if (rightSector == sectorIndex) {
-                edges.add(new Edge(linedef.startVertex(), linedef.endVertex()));
-            } else if (leftSector == sectorIndex) {
-                edges.add(new Edge(linedef.endVertex(), linedef.startVertex()));
-            }
-        }
-        return edges;
-    }
-
-    private static List<Edge> orderEdges(List<Edge> edges) {
-        List<Edge> ordered = new ArrayList<>();
-        Set<Edge> used = new HashSet<>();
-        ordered.add(edges.get(0));
-        used.add(edges.get(0));
-        while (ordered.size() < edges.size()) {
-            Edge current = ordered.get(ordered.size() - 1);
-            Edge next = findNextEdge(edges, used, current.end);
-            if (next == null) {
-                break;
-            }
-            ordered.add(next);
-            used.add(next);
-        }
-        return ordered;
-    }
-
-    private static Edge findNextEdge(List<Edge> edges, Set<Edge> used, int startVertex) {
-        for (Edge edge : edges) {
-            if (!used.contains(edge) && edge.start == startVertex) {
-                return edge;
-            }
-        }
-        return null;
-    }
-
-    private record Edge(int start, int end) {
-    }
-
     private record TeleportDest(Vec3d pos, float yaw) {
     }
 }
@@ -8,7 +8,6 @@ import com.hitpo.doommc3d.doomai.DoomMobSystem;
 import com.hitpo.doommc3d.doomai.DoomMobType;
 import com.hitpo.doommc3d.doommap.DoomMap;
 import com.hitpo.doommc3d.doommap.Thing;
-import com.hitpo.doommc3d.doommap.Vertex;
 import java.util.Locale;
 import java.util.Set;
 import net.minecraft.entity.EntityType;
@@ -120,7 +119,7 @@ public final class DoomThingSpawner {
     }
 
     private static Vec3d toWorldPos(DoomMap map, DoomOrigin origin, BlockPos buildOrigin, Thing thing) {
-        int sectorIndex = findSectorForThing(map, thing);
+        int sectorIndex = map.data().topology().sectorAt(thing.x(), thing.y());
         int floorY = sectorIndex >= 0 ? DoomToMCScale.toBlock(map.sectors()[sectorIndex].floorHeight()) : 0;
 
         int x = DoomToMCScale.toBlock(thing.x()) - origin.originBlockX();
@@ -160,22 +159,6 @@ public final class DoomThingSpawner {
         };
     }
 
-    // Copied from ThingPlacer: sector lookup by point-in-polygon (good enough for now).
-    private static int findSectorForThing(DoomMap map, Thing thing) {
-        double x = thing.x();
-        double y = thing.y();
-        for (int sectorIndex = 0; sectorIndex < map.sectors().length; sectorIndex++) {
-            var polygon = ThingPlacerSectorGeometry.buildSectorPolygon(map, sectorIndex);
-            if (polygon.isEmpty()) {
-                continue;
-            }
-            if (ThingPlacerSectorGeometry.containsPoint(polygon, x, y)) {
-                return sectorIndex;
-            }
-        }
-        return -1;
-    }
-
     private record SpawnSpec(DoomMobType mobType, DoomBossType bossType, EntityType<? extends MobEntity> bodyType) {
         static SpawnSpec mob(DoomMobType type, EntityType<? extends MobEntity> body) {
             return new SpawnSpec(type, null, body);
@@ -0,0 +1,206 @@
+package com.hitpo.doommc3d.worldgen;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.ChunkSectionPos;
+
+/**
+ * In-memory staging area for a level build, in world coordinates. Blocks are grouped by chunk
+ * section (16x16x16) and stored as short indices into one block-state palette, so stages can
+ * overwrite each other freely (air columns replaced by walls, ceilings by lights) and only the
+ * final state of each cell ever reaches the world.
+ */
+public final class DoomVoxelGrid {
+    private static final int SECTION_VOLUME = 16 * 16 * 16;
+    // Palette index 0 marks a cell no stage has written.
+    private static final short UNSET = 0;
+
+    private final Map<Long, short[]> sections = new HashMap<>();
+    private final List<BlockState> palette = new ArrayList<>();
+    private final Map<BlockState, Short> paletteIndex = new IdentityHashMap<>();
+    private long writes;
+    private long cells;
+
+    public DoomVoxelGrid() {
+        palette.add(null);
+    }
+
+    public void set(int x, int y, int z, BlockState state) {
+        short[] section = sections.computeIfAbsent(ChunkSectionPos.asLong(x >> 4, y >> 4, z >> 4), key -> new short[SECTION_VOLUME]);
+        int index = cellIndex(x, y, z);
+        if (section[index] == UNSET) {
+            cells++;
+        }
+        section[index] = paletteId(state);
+        writes++;
+    }
+
+    /**
+     * The staged state at (x, y, z), or null if nothing has been written there.
+     */
+    public BlockState get(int x, int y, int z) {
+        short[] section = sections.get(ChunkSectionPos.asLong(x >> 4, y >> 4, z >> 4));
+        return section == null ? null : palette.get(section[cellIndex(x, y, z)]);
+    }
+
+    /**
+     * Number of distinct cells holding a block.
+     */
+    public long size() {
+        return cells;
+    }
+
+    public long writes() {
+        return writes;
+    }
+
+    /**
+     * Writes that were overwritten in memory before reaching the world.
+     */
+    public long redundantWrites() {
+        return writes - cells;
+    }
+
+    public int sectionCount() {
+        return sections.size();
+    }
+
+    /**
+     * Visits every staged block once, section by section in a fixed (sorted key) order.
+     */
+    public void forEach(BlockVisitor visitor) {
+        Long[] keys = sections.keySet().toArray(new Long[0]);
+        Arrays.sort(keys);
+        for (Long key : keys) {
+            int baseX = ChunkSectionPos.unpackX(key) << 4;
+            int baseY = ChunkSectionPos.unpackY(key) << 4;
+            int baseZ = ChunkSectionPos.unpackZ(key) << 4;
+            short[] states = sections.get(key);
+            for (int index = 0; index < SECTION_VOLUME; index++) {
+                if (states[index] != UNSET) {
+                    visitor.accept(baseX + (index & 15), baseY + (index >> 8), baseZ + ((index >> 4) & 15), palette.get(states[index]));
+                }
+            }
+        }
+    }
+
+    /**
+     * Keys ({@link ChunkSectionPos#asLong}) of every staged section in the same order as
+     * {@link #forEach}, so all sections of a chunk column are adjacent.
+     */
+    public long[] sectionKeys() {
+        long[] keys = new long[sections.size()];
+        int i = 0;
+        for (long key : sections.keySet()) {
+            keys[i++] = key;
+        }
+        Arrays.sort(keys);
+        return keys;
+    }
+
+    /**
+     * Copies one section into {@code cells}, indexed like a section's block storage (y, then z,
+     * then x), with null where nothing was staged.
+     */
+    public void readSection(long key, BlockState[] cells) {
+        short[] states = sections.get(key);
+        for (int index = 0; index < SECTION_VOLUME; index++) {
+            cells[index] = states == null ? null : palette.get(states[index]);
+        }
+    }
+
+    /**
+     * Stages a whole section from {@code states}, indexed as in {@link #readSection}; null entries
+     * leave the cell as it was.
+     */
+    public void pasteSection(long key, BlockState[] states) {
+        short[] section = sections.computeIfAbsent(key, k -> new short[SECTION_VOLUME]);
+        BlockState last = null;
+        short lastId = UNSET;
+        for (int index = 0; index < SECTION_VOLUME; index++) {
+            BlockState state = states[index];
+            if (state == null) {
+                continue;
+            }
+            // Sections are mostly runs of one block, so skip the palette lookup while it repeats.
+            if (state != last) {
+                last = state;
+                lastId = paletteId(state);
+            }
+            if (section[index] == UNSET) {
+                cells++;
+            }
+            section[index] = lastId;
+            writes++;
+        }
+    }
+
+    /**
+     * Moves every staged cell whose state passes {@code filter} into {@code target}, leaving it
+     * unset here. Returns the number of cells moved.
+     */
+    public long moveMatching(Predicate<BlockState> filter, DoomVoxelGrid target) {
+        boolean[] matching = new boolean[palette.size()];
+        boolean any = false;
+        for (int id = 1; id < matching.length; id++) {
+            matching[id] = filter.test(palette.get(id));
+            any |= matching[id];
+        }
+        if (!any) {
+            return 0;
+        }
+        long moved = 0;
+        for (Map.Entry<Long, short[]> entry : sections.entrySet()) {
+            long key = entry.getKey();
+            int baseX = ChunkSectionPos.unpackX(key) << 4;
+            int baseY = ChunkSectionPos.unpackY(key) << 4;
+            int baseZ = ChunkSectionPos.unpackZ(key) << 4;
+            short[] states = entry.getValue();
+            for (int index = 0; index < SECTION_VOLUME; index++) {
+                if (matching[states[index]]) {
+                    target.set(baseX + (index & 15), baseY + (index >> 8), baseZ + ((index >> 4) & 15), palette.get(states[index]));
+                    states[index] = UNSET;
+                    cells--;
+                    moved++;
+                }
+            }
+        }
+        return moved;
+    }
+
+    public void clear() {
+        sections.clear();
+        writes = 0;
+        cells = 0;
+    }
+
+    private short paletteId(BlockState state) {
+        Short id = paletteIndex.get(state);
+        if (id != null) {
+            return id;
+        }
+        if (palette.size() > Short.MAX_VALUE) {
+            throw new IllegalStateException("Voxel grid palette is full (" + Short.MAX_VALUE + " block states)");
+        }
+        short created = (short) palette.size();
+        palette.add(state);
+        paletteIndex.put(state, created);
+        return created;
+    }
+
+    // Same y-major, then z, then x order as a chunk section's block storage.
+    private static int cellIndex(int x, int y, int z) {
+        return ((y & 15) << 8) | ((z & 15) << 4) | (x & 15);
+    }
+
+    @FunctionalInterface
+    public interface BlockVisitor {
+        void accept(int x, int y, int z, BlockState state);
+    }
+}
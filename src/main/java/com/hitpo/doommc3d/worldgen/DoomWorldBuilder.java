@@ -1,10 +1,11 @@
 package com.hitpo.doommc3d.worldgen;
 
+import com.hitpo.doommc3d.convert.CompiledMap;
+import com.hitpo.doommc3d.convert.CompiledMapCache;
 import com.hitpo.doommc3d.convert.SectorRasterizer;
 import com.hitpo.doommc3d.convert.DoomOrigin;
 import com.hitpo.doommc3d.doommap.DoomMap;
-import com.hitpo.doommc3d.wad.DoomMapParser;
-import com.hitpo.doommc3d.wad.WadFile;
+import com.hitpo.doommc3d.wad.WadLumpSource;
 import com.hitpo.doommc3d.wad.WadLoader;
 import com.hitpo.doommc3d.wad.WadRepository;
 import com.hitpo.doommc3d.net.PlayMusicPayload;
@@ -13,22 +14,52 @@ import com.hitpo.doommc3d.interact.DoomTeleporterRegistry;
 import com.hitpo.doommc3d.interact.DoomLevelBoundsRegistry;
 import com.hitpo.doommc3d.interact.DoomLevelState;
 import com.hitpo.doommc3d.interact.DoomLevelStateRegistry;
+import com.hitpo.doommc3d.interact.DoomSectorGraph;
 import com.hitpo.doommc3d.interact.DoomSectorGraphRegistry;
+import com.hitpo.doommc3d.state.DoomBuildFootprint;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.registry.RegistryKey;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.text.Text;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Box;
+import net.minecraft.world.World;
 import net.minecraft.world.rule.GameRules;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class DoomWorldBuilder {
-    public static void build(ServerWorld world, ServerPlayerEntity player, String mapName) {
-        build(world, player, mapName, null);
+    // One daemon worker: builds are prepared one at a time, in request order.
+    private static final ExecutorService WORKER = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "DoomMC3D-Build");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Latest build request per world; a plan whose request has been superseded is dropped.
+    private static final Map<RegistryKey<World>, Long> PENDING = new ConcurrentHashMap<>();
+    private static final AtomicLong REQUESTS = new AtomicLong();
+
+    public static CompletableFuture<Void> build(ServerWorld world, ServerPlayerEntity player, String mapName) {
+        return build(world, player, mapName, null);
     }
 
-    public static void build(ServerWorld world, ServerPlayerEntity player, String mapName, String wadOverride) {
+    /**
+     * Loads, compiles and rasterises the map on the build worker, then back on the server thread
+     * hands the resulting {@link DoomBuildPlan} to a {@link DoomBuildJob} that places it over the
+     * following ticks. The future completes once the job has started, or exceptionally if the map
+     * could not be prepared.
+     */
+    public static CompletableFuture<Void> build(ServerWorld world, ServerPlayerEntity player, String mapName, String wadOverride) {
         com.hitpo.doommc3d.util.DebugLogger.debug("DoomWorldBuilder.build", () -> "[DoomMC3D] Building map: " + mapName);
         var playerPos = player.getBlockPos();
         // Apply a global absolute Y offset so Doom levels are generated high above terrain to avoid clipping.
@@ -38,95 +69,218 @@ public class DoomWorldBuilder {
         int targetY = baseY;
         // If BASE_Y is unrealistically high, clamp to a safe room below max height
         if (targetY > maxHeight - 16) targetY = Math.max(16, maxHeight - 16);
-        var buildOrigin = playerPos.withY(targetY);
-        BlockPlacer placer = new BlockPlacer(world, buildOrigin);
+        // Rebuilding from inside the last level regenerates it in place, so only the differences are written.
+        DoomBuildFootprint footprint = DoomBuildFootprint.get(world);
+        BlockPos inPlaceOrigin = footprint.originCovering(playerPos);
+        BlockPos buildOrigin = inPlaceOrigin != null ? inPlaceOrigin : playerPos.withY(targetY);
+        DoomBuildFootprint.Snapshot previous = footprint.current();
+
+        long request = REQUESTS.incrementAndGet();
+        PENDING.put(world.getRegistryKey(), request);
+        // Owned by this request alone: chunks start loading once the worker knows the bounds, and
+        // nothing but this request's outcome or its job stops it.
+        DoomChunkWarmup warmup = new DoomChunkWarmup(world);
+        warmup.start();
+        return CompletableFuture
+            .supplyAsync(() -> prepare(world, mapName, wadOverride, buildOrigin, previous, warmup), WORKER)
+            .handleAsync((plan, error) -> {
+                if (!PENDING.remove(world.getRegistryKey(), request)) {
+                    warmup.stop();
+                    com.hitpo.doommc3d.util.DebugLogger.debug("DoomWorldBuilder.build", () -> "[DoomMC3D] Dropping superseded build of " + mapName);
+                    return null;
+                }
+                if (error != null) {
+                    warmup.stop();
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    player.sendMessage(Text.literal("[DoomMC3D] Failed to load map (" + cause.getMessage() + ")"), false);
+                    com.hitpo.doommc3d.util.DebugLogger.debug("DoomWorldBuilder.error", () -> {
+                        cause.printStackTrace();
+                        return "[DoomMC3D] Failed to load map (" + cause.getMessage() + ")";
+                    });
+                    throw new CompletionException(cause);
+                }
+                try {
+                    apply(world, player, plan);
+                } catch (RuntimeException e) {
+                    // The job never started, so nothing else will stop this request's warm-up.
+                    warmup.stop();
+                    throw e;
+                }
+                return null;
+            }, world.getServer());
+    }
+
+    /**
+     * True while a build for {@code world} is being prepared or placed.
+     */
+    public static boolean isBuilding(ServerWorld world) {
+        return PENDING.containsKey(world.getRegistryKey()) || DoomBuildJob.isRunning(world);
+    }
+
+    /**
+     * Drops a build of {@code world} still being prepared, so its plan is never applied. Returns
+     * false if none was.
+     */
+    public static boolean cancelPending(ServerWorld world) {
+        return PENDING.remove(world.getRegistryKey()) != null;
+    }
+
+    // Build worker: WAD I/O, parsing, topology, rasterisation and extraction. Reads nothing from
+    // the world but its height limits.
+    private static DoomBuildPlan prepare(ServerWorld world, String mapName, String wadOverride, BlockPos buildOrigin, DoomBuildFootprint.Snapshot previous, DoomChunkWarmup warmup) {
+        WadLumpSource wad;
         try {
-            WadFile wad = WadRepository.getOrLoad(wadOverride);
-            com.hitpo.doommc3d.util.DebugLogger.debug("DoomWorldBuilder.wad", () -> "[DoomMC3D] WAD search dirs: " + WadLoader.getWadsDirectories());
-            com.hitpo.doommc3d.util.DebugLogger.debug("DoomWorldBuilder.wad", () -> "[DoomMC3D] Using WAD: " + wad.getSource());
-            
-            DoomMap doomMap = DoomMapParser.parse(wad, mapName);
-            com.hitpo.doommc3d.util.DebugLogger.debug("DoomWorldBuilder.map", () -> "[DoomMC3D] Map '" + doomMap.name() + "' loaded with " + doomMap.vertices().length + " vertices");
-            logTextureUsage(doomMap);
-            player.sendMessage(Text.literal("[DoomMC3D] Rendering " + mapName + " from " + wad.getSource().getFileName()), false);
-            DoomOrigin origin = DoomOrigin.fromMap(doomMap);
-
-            DoomSectorGraphRegistry.set(world, DoomSectorGraphBuilder.build(doomMap, origin, buildOrigin));
-
-            // Doom levels shouldn't have Minecraft ambient spawns.
-            world.getGameRules().setValue(GameRules.DO_MOB_SPAWNING, false, world.getServer());
-            world.getGameRules().setValue(GameRules.SPAWN_PATROLS, false, world.getServer());
-            world.getGameRules().setValue(GameRules.SPAWN_WANDERING_TRADERS, false, world.getServer());
-            world.getGameRules().setValue(GameRules.SPAWN_PHANTOMS, false, world.getServer());
-
-            DoomLevelBoundsRegistry.set(world, DoomSpawnCleanup.computeBounds(world, doomMap, origin, buildOrigin));
-            int cleared = DoomSpawnCleanup.clearSpawnedEntities(world, doomMap, origin, buildOrigin);
-            if (cleared > 0) {
-                com.hitpo.doommc3d.util.DebugLogger.debug("DoomWorldBuilder.clean", () -> "[DoomMC3D] Cleared " + cleared + " previously spawned entities");
-            }
+            wad = loadWadFor(mapName, wadOverride);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        com.hitpo.doommc3d.util.DebugLogger.debug("DoomWorldBuilder.wad", () -> "[DoomMC3D] WAD search dirs: " + WadLoader.getWadsDirectories());
+        com.hitpo.doommc3d.util.DebugLogger.debug("DoomWorldBuilder.wad", () -> "[DoomMC3D] Using WAD: " + wad.getName() + " (" + wad.getSource() + ")");
+
+        CompiledMap compiled = CompiledMapCache.getOrCompile(wad, mapName);
+        DoomMap doomMap = compiled.map();
+        com.hitpo.doommc3d.util.DebugLogger.debug("DoomWorldBuilder.map", () -> "[DoomMC3D] Map '" + doomMap.name() + "' loaded with " + doomMap.vertices().length + " vertices");
+        logTextureUsage(doomMap);
+        DoomOrigin origin = compiled.origin();
+        DoomSectorGraph sectorGraph = DoomSectorGraphBuilder.build(compiled, buildOrigin);
+        Box bounds = DoomSpawnCleanup.computeBounds(world, doomMap, origin, buildOrigin);
+        // Chunks under the level load on the server while the rest of the plan is worked out here.
+        warmup.cover(bounds);
+
+        // Geometry and roof are staged, then written a slice per tick by the build job. A saved
+        // snapshot of the converted level replaces rasterisation entirely.
+        DoomVoxelGrid staging = new DoomVoxelGrid();
+        if (!DoomLevelSnapshot.load(wad, mapName, buildOrigin, staging)) {
+            BlockPlacer placer = new BlockPlacer(world, buildOrigin, staging);
             SectorRasterizer rasterizer = new SectorRasterizer();
-            rasterizer.rasterize(doomMap, placer, origin);
-            // Place a solid roof above the generated map to block skylight leaks
-            try {
-                var bounds = DoomLevelBoundsRegistry.get(world);
-                if (bounds != null) {
-                    // Compute max ceiling used in map (block-space relative to origin)
-                    int maxCeilRel = Integer.MIN_VALUE;
-                    for (com.hitpo.doommc3d.doommap.Sector s : doomMap.sectors()) {
-                        int c = com.hitpo.doommc3d.convert.DoomToMCScale.toBlock(s.ceilingHeight());
-                        maxCeilRel = Math.max(maxCeilRel, c);
-                    }
-                    if (maxCeilRel != Integer.MIN_VALUE) {
-                        int roofPadding = 3;
-                        int roofWorldY = buildOrigin.getY() + maxCeilRel + roofPadding;
-                        int minX = (int) Math.floor(bounds.minX);
-                        int maxX = (int) Math.ceil(bounds.maxX);
-                        int minZ = (int) Math.floor(bounds.minZ);
-                        int maxZ = (int) Math.ceil(bounds.maxZ);
-                        for (int wx = minX; wx <= maxX; wx++) {
-                            for (int wz = minZ; wz <= maxZ; wz++) {
-                                int relX = wx - buildOrigin.getX();
-                                int relZ = wz - buildOrigin.getZ();
-                                int relY = roofWorldY - buildOrigin.getY();
-                                placer.placeBlock(relX, relY, relZ, net.minecraft.block.Blocks.POLISHED_DEEPSLATE.getDefaultState());
-                            }
-                        }
+            rasterizer.rasterize(compiled, placer);
+            stageRoof(doomMap, bounds, buildOrigin, placer);
+            DoomLevelSnapshot.save(wad, mapName, buildOrigin, staging);
+        }
+        long stagedWrites = staging.writes();
+        long redundantWrites = staging.redundantWrites();
+        DoomBuildFootprint.Snapshot builtCells = DoomBuildFootprint.snapshot(buildOrigin, staging);
+        long staleCells = previous.stageRemovals(buildOrigin, staging);
+        // Ceiling lights go in as their own batch once the geometry around them is in place.
+        DoomVoxelGrid lights = new DoomVoxelGrid();
+        long lightCells = staging.moveMatching(state -> state.isOf(net.minecraft.block.Blocks.LIGHT), lights);
+        com.hitpo.doommc3d.util.DebugLogger.debug("DoomWorldBuilder.place", () -> "[DoomMC3D] Staged " + staging.size() + " blocks and " + lightCells + " lights from "
+            + stagedWrites + " writes (" + redundantWrites + " redundant writes skipped, " + staleCells + " stale cells cleared)");
+
+        List<com.hitpo.doommc3d.interact.DoomSecretTrigger> secrets = DoomSecretExtractor.extract(doomMap, origin, buildOrigin);
+        List<com.hitpo.doommc3d.interact.DoomTeleporterTrigger> teleporters = DoomTeleporterExtractor.extract(doomMap, origin, buildOrigin);
+        return new DoomBuildPlan(mapName, wad, compiled, buildOrigin, sectorGraph, bounds, warmup, staging, lights, builtCells, secrets, teleporters);
+    }
+
+    // Server thread: registries, game rules, entity cleanup, then the job that writes the world.
+    private static void apply(ServerWorld world, ServerPlayerEntity player, DoomBuildPlan plan) {
+        String mapName = plan.mapName();
+        DoomMap doomMap = plan.map();
+        DoomOrigin origin = plan.origin();
+        BlockPos buildOrigin = plan.buildOrigin();
+        player.sendMessage(Text.literal("[DoomMC3D] Rendering " + mapName + " from " + plan.wad().getName()), false);
+
+        DoomSectorGraphRegistry.set(world, plan.sectorGraph());
+
+        // Doom levels shouldn't have Minecraft ambient spawns.
+        world.getGameRules().setValue(GameRules.DO_MOB_SPAWNING, false, world.getServer());
+        world.getGameRules().setValue(GameRules.SPAWN_PATROLS, false, world.getServer());
+        world.getGameRules().setValue(GameRules.SPAWN_WANDERING_TRADERS, false, world.getServer());
+        world.getGameRules().setValue(GameRules.SPAWN_PHANTOMS, false, world.getServer());
+
+        DoomLevelBoundsRegistry.set(world, plan.bounds());
+        int cleared = DoomSpawnCleanup.clearSpawnedEntities(world, doomMap, origin, buildOrigin);
+        if (cleared > 0) {
+            com.hitpo.doommc3d.util.DebugLogger.debug("DoomWorldBuilder.clean", () -> "[DoomMC3D] Cleared " + cleared + " previously spawned entities");
+        }
+
+        // Geometry is written over the next ticks; everything that needs it in place runs after.
+        DoomBuildFootprint footprint = DoomBuildFootprint.get(world);
+        DoomBuildJob job = new DoomBuildJob(world, player, mapName, plan.geometry())
+            .awaitChunks(plan.warmup())
+            .then("footprint", () -> footprint.replace(plan.builtCells()))
+            .then("lighting", () -> {
+                long lit = DoomSectionWriter.writeLights(world, plan.lights());
+                com.hitpo.doommc3d.util.DebugLogger.debug("DoomWorldBuilder.place", () -> "[DoomMC3D] Placed " + lit + " light blocks");
+            })
+            .then("things", () -> {
+                int thingsPlaced = ThingPlacer.place(world, doomMap, origin, buildOrigin, new BlockPlacer(world, buildOrigin));
+                com.hitpo.doommc3d.util.DebugLogger.debug("DoomWorldBuilder.place", () -> "[DoomMC3D] Placed " + thingsPlaced + " THINGS");
+            })
+            .then("teleporter pads", () -> {
+                int telepadsPlaced = DoomTeleporterPadPlacer.placePads(world, doomMap, origin, buildOrigin);
+                com.hitpo.doommc3d.util.DebugLogger.debug("DoomWorldBuilder.place", () -> "[DoomMC3D] Placed " + telepadsPlaced + " teleporter pads");
+            })
+            .then("secrets", () -> {
+                DoomSecretRegistry.clear(world);
+                DoomSecretRegistry.set(world, plan.secrets());
+                DoomSecretSystem.clearPlayerCache();
+                com.hitpo.doommc3d.util.DebugLogger.debug("DoomWorldBuilder.place", () -> "[DoomMC3D] Registered " + plan.secrets().size() + " secrets");
+            })
+            .then("teleporters", () -> {
+                DoomTeleporterRegistry.clear(world);
+                DoomTeleporterRegistry.set(world, plan.teleporters());
+                DoomTeleporterSystem.clearPlayerCache();
+                com.hitpo.doommc3d.util.DebugLogger.debug("DoomWorldBuilder.place", () -> "[DoomMC3D] Registered " + plan.teleporters().size() + " teleporters");
+            })
+            .then("doors", () -> DoorPlacer.placeDoors(world, doomMap, origin, buildOrigin))
+            .then("switches", () -> DoomTriggerPlacer.place(world, doomMap, origin, buildOrigin))
+            .then("lifts", () -> DoomLiftPlacer.place(world, doomMap, origin, buildOrigin))
+            .then("event triggers", () -> DoomEventTriggerPlacer.place(world, doomMap, origin, buildOrigin))
+            .then("line triggers", () -> DoomLineTriggerPlacer.place(world, doomMap, origin, buildOrigin))
+            .then("spawns", () -> {
+                var spawns = DoomThingSpawner.spawnFromThings(world, player, doomMap, origin, buildOrigin, mapName);
+                ServerPlayNetworking.send(player, new PlayMusicPayload(mapName));
+                DoomLevelStateRegistry.set(world, new DoomLevelState(mapName, plan.wad().getName(), buildOrigin.toImmutable()));
+                com.hitpo.doommc3d.util.DebugLogger.debug("DoomWorldBuilder.place", () -> "[DoomMC3D] Spawned " + spawns.enemiesSpawned() + " enemies and " + spawns.bossesSpawned() + " bosses");
+            });
+        DoomBuildJob.start(job);
+    }
+
+    // Place a solid roof above the generated map to block skylight leaks
+    private static void stageRoof(DoomMap doomMap, Box bounds, BlockPos buildOrigin, BlockPlacer placer) {
+        try {
+            // Compute max ceiling used in map (block-space relative to origin)
+            int maxCeilRel = Integer.MIN_VALUE;
+            for (com.hitpo.doommc3d.doommap.Sector s : doomMap.sectors()) {
+                int c = com.hitpo.doommc3d.convert.DoomToMCScale.toBlock(s.ceilingHeight());
+                maxCeilRel = Math.max(maxCeilRel, c);
+            }
+            if (maxCeilRel != Integer.MIN_VALUE) {
+                int roofPadding = 3;
+                int roofWorldY = buildOrigin.getY() + maxCeilRel + roofPadding;
+                int minX = (int) Math.floor(bounds.minX);
+                int maxX = (int) Math.ceil(bounds.maxX);
+                int minZ = (int) Math.floor(bounds.minZ);
+                int maxZ = (int) Math.ceil(bounds.maxZ);
+                for (int wx = minX; wx <= maxX; wx++) {
+                    for (int wz = minZ; wz <= maxZ; wz++) {
+                        int relX = wx - buildOrigin.getX();
+                        int relZ = wz - buildOrigin.getZ();
+                        int relY = roofWorldY - buildOrigin.getY();
+                        placer.placeBlock(relX, relY, relZ, net.minecraft.block.Blocks.POLISHED_DEEPSLATE.getDefaultState());
                     }
                 }
-            } catch (Exception ignored) {
             }
-            int thingsPlaced = ThingPlacer.place(world, doomMap, origin, buildOrigin);
-            int telepadsPlaced = DoomTeleporterPadPlacer.placePads(world, doomMap, origin, buildOrigin);
-            List<com.hitpo.doommc3d.interact.DoomSecretTrigger> secrets = DoomSecretExtractor.extract(doomMap, origin, buildOrigin);
-            DoomSecretRegistry.clear(world);
-            DoomSecretRegistry.set(world, secrets);
-            DoomSecretSystem.clearPlayerCache();
-            List<com.hitpo.doommc3d.interact.DoomTeleporterTrigger> teleporters = DoomTeleporterExtractor.extract(doomMap, origin, buildOrigin);
-            DoomTeleporterRegistry.clear(world);
-            DoomTeleporterRegistry.set(world, teleporters);
-            DoomTeleporterSystem.clearPlayerCache();
-            DoorPlacer.placeDoors(world, doomMap, origin, buildOrigin);
-            DoomTriggerPlacer.place(world, doomMap, origin, buildOrigin);
-            DoomLiftPlacer.place(world, doomMap, origin, buildOrigin);
-            DoomEventTriggerPlacer.place(world, doomMap, origin, buildOrigin);
-            DoomLineTriggerPlacer.place(world, doomMap, origin, buildOrigin);
-            var spawns = DoomThingSpawner.spawnFromThings(world, player, doomMap, origin, buildOrigin, mapName);
-            ServerPlayNetworking.send(player, new PlayMusicPayload(mapName));
-
-            DoomLevelStateRegistry.set(world, new DoomLevelState(mapName, wad.getSource().getFileName().toString(), buildOrigin.toImmutable()));
-            com.hitpo.doommc3d.util.DebugLogger.debug("DoomWorldBuilder.place", () -> "[DoomMC3D] Placed " + thingsPlaced + " THINGS");
-            com.hitpo.doommc3d.util.DebugLogger.debug("DoomWorldBuilder.place", () -> "[DoomMC3D] Placed " + telepadsPlaced + " teleporter pads");
-            com.hitpo.doommc3d.util.DebugLogger.debug("DoomWorldBuilder.place", () -> "[DoomMC3D] Registered " + secrets.size() + " secrets");
-            com.hitpo.doommc3d.util.DebugLogger.debug("DoomWorldBuilder.place", () -> "[DoomMC3D] Registered " + teleporters.size() + " teleporters");
-            com.hitpo.doommc3d.util.DebugLogger.debug("DoomWorldBuilder.place", () -> "[DoomMC3D] Spawned " + spawns.enemiesSpawned() + " enemies and " + spawns.bossesSpawned() + " bosses");
-        } catch (IOException | IllegalArgumentException e) {
-            String message = "[DoomMC3D] Failed to load map (" + e.getMessage() + ")";
-            player.sendMessage(Text.literal(message), false);
-            com.hitpo.doommc3d.util.DebugLogger.debug("DoomWorldBuilder.error", () -> {
-            e.printStackTrace();
-            return "[DoomMC3D] Failed to load map (" + e.getMessage() + ")";
-            });
+        } catch (Exception ignored) {
+        }
+    }
+
+    /**
+     * Without an explicit WAD, falls back to whichever catalogued WAD has the map when the
+     * default IWAD lacks it (e.g. "/doomgen e1m1" with only DOOM2.WAD as the default).
+     */
+    private static WadLumpSource loadWadFor(String mapName, String wadOverride) throws IOException {
+        WadLumpSource wad = WadRepository.getOrLoad(wadOverride);
+        if (wadOverride != null || wad.getIndex().getMap(mapName) != null) {
+            return wad;
+        }
+        String provider = WadLoader.findWadForMap(mapName);
+        if (provider == null) {
+            return wad;
         }
+        com.hitpo.doommc3d.util.DebugLogger.debug("DoomWorldBuilder.wad", () -> "[DoomMC3D] " + mapName + " not in " + wad.getName() + "; catalog says " + provider);
+        return WadRepository.getOrLoad(provider);
     }
 
     private static void logTextureUsage(DoomMap doomMap) {
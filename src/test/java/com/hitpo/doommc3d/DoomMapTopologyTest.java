@@ -0,0 +1,101 @@
+package com.hitpo.doommc3d;
+
+import com.hitpo.doommc3d.doommap.DoomMapData;
+import com.hitpo.doommc3d.doommap.DoomMapTopology;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DoomMapTopologyTest {
+    // Sector 0: a 256-unit room (lines 0-3) with a square pillar (lines 4-7) and sector 1, a square
+    // island (lines 8-11), standing in it.
+    private static final int[][] VERTICES = {
+        {0, 0}, {0, 256}, {256, 256}, {256, 0},
+        {64, 64}, {128, 64}, {128, 128}, {64, 128},
+        {160, 160}, {160, 224}, {224, 224}, {224, 160}
+    };
+    // start, end, right sidedef, left sidedef (-1 for none)
+    private static final int[][] LINES = {
+        {0, 1, 0, -1}, {1, 2, 0, -1}, {2, 3, 0, -1}, {3, 0, 0, -1},
+        {4, 5, 0, -1}, {5, 6, 0, -1}, {6, 7, 0, -1}, {7, 4, 0, -1},
+        {8, 9, 1, 0}, {9, 10, 1, 0}, {10, 11, 1, 0}, {11, 8, 1, 0}
+    };
+    // Sector of each sidedef.
+    private static final int[] SIDES = {0, 1};
+
+    @Test
+    public void pillarAndIslandAreHolesOfTheRoom() {
+        DoomMapTopology topology = buildMap().topology();
+
+        int[][] roomLoops = topology.sectorLoops(0);
+        assertEquals(3, roomLoops.length);
+        int holes = 0;
+        for (int loop = 0; loop < roomLoops.length; loop++) {
+            if (topology.isHoleLoop(0, loop)) {
+                holes++;
+            }
+        }
+        assertEquals(2, holes, "Pillar and island outlines should both be holes of the room");
+        assertEquals(1, topology.sectorLoops(1).length);
+        assertFalse(topology.isHoleLoop(1, 0), "The island's own outline is its outer boundary");
+
+        assertFalse(topology.isHoleLine(0, 0), "Room wall");
+        assertTrue(topology.isHoleLine(0, 4), "Pillar face");
+        assertTrue(topology.isHoleLine(0, 8), "Island edge seen from the room");
+        assertFalse(topology.isHoleLine(1, 8), "Island edge seen from the island");
+
+        assertEquals(0, topology.enclosingSector(1), "The island sits in the room");
+        assertEquals(-1, topology.enclosingSector(0));
+
+        assertTrue(topology.containsPoint(0, 32, 32));
+        assertFalse(topology.containsPoint(0, 96, 96), "Inside the pillar");
+        assertFalse(topology.containsPoint(0, 192, 192), "Inside the island");
+        assertTrue(topology.containsPoint(1, 192, 192));
+        assertFalse(topology.containsPoint(1, 32, 32));
+    }
+
+    private static DoomMapData buildMap() {
+        ByteBuffer vertexes = lump(VERTICES.length * 4);
+        for (int[] vertex : VERTICES) {
+            vertexes.putShort((short) vertex[0]).putShort((short) vertex[1]);
+        }
+        ByteBuffer linedefs = lump(LINES.length * 14);
+        for (int[] line : LINES) {
+            linedefs.putShort((short) line[0]).putShort((short) line[1])
+                .putShort((short) 0).putShort((short) 0).putShort((short) 0)
+                .putShort((short) line[2]).putShort((short) line[3]);
+        }
+        ByteBuffer sidedefs = lump(SIDES.length * 30);
+        for (int sector : SIDES) {
+            sidedefs.putShort((short) 0).putShort((short) 0)
+                .put(name("-")).put(name("-")).put(name("STARTAN3"))
+                .putShort((short) sector);
+        }
+        ByteBuffer sectors = lump(2 * 26);
+        for (int sector = 0; sector < 2; sector++) {
+            sectors.putShort((short) 0).putShort((short) 128)
+                .put(name("FLOOR4_8")).put(name("CEIL3_5"))
+                .putShort((short) 160).putShort((short) 0).putShort((short) 0);
+        }
+        ByteBuffer empty = lump(0);
+        return DoomMapData.read("TEST", vertexes.flip(), linedefs.flip(), sidedefs.flip(), sectors.flip(), empty,
+            empty, empty, empty, empty, empty);
+    }
+
+    private static ByteBuffer lump(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static byte[] name(String name) {
+        byte[] bytes = new byte[8];
+        for (int i = 0; i < name.length(); i++) {
+            bytes[i] = (byte) name.charAt(i);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,86 @@
+package com.hitpo.doommc3d;
+
+import com.hitpo.doommc3d.doommap.DoomMapData;
+import com.hitpo.doommc3d.doommap.LinedefGrid;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LinedefGridTest {
+    @Test
+    public void blockmapCellsListTheirLines() {
+        // Line 0 runs through both cells; line 1 sits in cell 0 only.
+        int[][] vertices = {{0, 64}, {250, 64}, {10, 10}, {20, 10}};
+        int[][] lines = {{0, 1}, {2, 3}};
+        // Origin (0, 0), 2 x 1 cells; each list starts with the vanilla 0 entry and ends with -1.
+        short[] blockmap = {
+            0, 0, 2, 1,
+            6, 10,
+            0, 0, 1, -1,
+            0, 0, -1
+        };
+        LinedefGrid grid = buildMap(vertices, lines, blockmap).blockmap();
+        assertEquals(2, grid.columns(), "The lump's grid, not a synthesized one");
+        assertEquals(1, grid.rows());
+
+        // Crossing from cell 0 into cell 1 picks up both cells' lines.
+        assertArrayEquals(new int[] {0, 1}, grid.linesAlongSegment(100, 20, 200, 100, 0));
+        // Inside cell 1 only line 0 is a candidate...
+        assertArrayEquals(new int[] {0}, grid.linesAlongSegment(130, 10, 135, 10, 0));
+        // ...unless the padding reaches back over the cell boundary at x = 128.
+        assertArrayEquals(new int[] {0, 1}, grid.linesAlongSegment(130, 10, 135, 10, 8));
+    }
+
+    @Test
+    public void missingBlockmapIsSynthesizedFromLines() {
+        // Line 0 is a long diagonal across several cells; line 1 is short and sits in the bottom-left cell.
+        int[][] vertices = {{0, 0}, {380, 250}, {0, 100}, {100, 100}};
+        int[][] lines = {{0, 1}, {2, 3}};
+        LinedefGrid grid = buildMap(vertices, lines, new short[0]).blockmap();
+        // Origin (-8, -8): 128-unit cells up to the highest vertex.
+        assertEquals(4, grid.columns());
+        assertEquals(3, grid.rows());
+
+        // A short segment in a cell the diagonal crosses far from either of its ends.
+        assertArrayEquals(new int[] {0}, grid.linesAlongSegment(300, 200, 310, 205, 0));
+        // A segment crossing the column boundary at x = 120 sees both lines' cells.
+        assertArrayEquals(new int[] {0, 1}, grid.linesAlongSegment(100, 60, 140, 90, 0));
+        // The cell above line 1 is empty, but padding reaches down across the row boundary at y = 120
+        // into the bottom-left cell.
+        assertArrayEquals(new int[0], grid.linesAlongSegment(50, 125, 60, 125, 0));
+        assertArrayEquals(new int[] {0, 1}, grid.linesAlongSegment(50, 125, 60, 125, 16));
+    }
+
+    private static DoomMapData buildMap(int[][] vertices, int[][] lines, short[] blockmap) {
+        ByteBuffer vertexes = lump(vertices.length * 4);
+        for (int[] vertex : vertices) {
+            vertexes.putShort((short) vertex[0]).putShort((short) vertex[1]);
+        }
+        ByteBuffer linedefs = lump(lines.length * 14);
+        for (int[] line : lines) {
+            linedefs.putShort((short) line[0]).putShort((short) line[1])
+                .putShort((short) 0).putShort((short) 0).putShort((short) 0)
+                .putShort((short) 0).putShort((short) -1);
+        }
+        ByteBuffer sidedefs = lump(30);
+        sidedefs.putShort((short) 0).putShort((short) 0).put(new byte[24]).putShort((short) 0);
+        ByteBuffer sectors = lump(26);
+        sectors.putShort((short) 0).putShort((short) 128).put(new byte[16])
+            .putShort((short) 160).putShort((short) 0).putShort((short) 0);
+        ByteBuffer blocks = lump(blockmap.length * 2);
+        for (short word : blockmap) {
+            blocks.putShort(word);
+        }
+        ByteBuffer empty = lump(0);
+        return DoomMapData.read("TEST", vertexes.flip(), linedefs.flip(), sidedefs.flip(), sectors.flip(), empty,
+            empty, empty, empty, empty, blocks.flip());
+    }
+
+    private static ByteBuffer lump(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
@@ -0,0 +1,50 @@
+package com.hitpo.doommc3d;
+
+import com.hitpo.doommc3d.convert.CompiledMap;
+import com.hitpo.doommc3d.convert.DoomOrigin;
+import com.hitpo.doommc3d.convert.ScanlineRasterizer;
+import com.hitpo.doommc3d.doommap.DoomMap;
+import com.hitpo.doommc3d.doommap.DoomMapData;
+import com.hitpo.doommc3d.doommap.DoomMapTopology;
+import com.hitpo.doommc3d.wad.DoomMapParser;
+import com.hitpo.doommc3d.wad.WadFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ScanlineRasterizerTest {
+    private static final double HALF_CELL = DoomConstants.DOOM_TO_MC_SCALE / 2.0;
+
+    @Test
+    public void scanlineFillMatchesRayTestOnE1M1() throws IOException {
+        Path wadPath = Path.of("reference/WADS/DOOM.WAD");
+        assertTrue(Files.exists(wadPath), "Missing reference WAD for tests");
+        DoomMap map = DoomMapParser.parse(new WadFile(wadPath), "E1M1");
+        DoomMapData data = map.data();
+        DoomMapTopology topology = data.topology();
+        DoomOrigin origin = DoomOrigin.fromMap(map);
+        int originBlockX = origin.originBlockX();
+        int originBlockZ = origin.originBlockZ();
+
+        long filled = 0;
+        for (int sector = 0; sector < data.sectorCount(); sector++) {
+            CompiledMap.SectorMask mask = ScanlineRasterizer.fill(data, topology.sectorLoops(sector), originBlockX, originBlockZ);
+            // Every cell of the box the old per-cell scan walked, sampled at the same cell centre.
+            for (int x = mask.minX(); x < mask.minX() + mask.width(); x++) {
+                for (int z = mask.minZ(); z < mask.minZ() + mask.depth(); z++) {
+                    double doomX = (x + originBlockX) * (double) DoomConstants.DOOM_TO_MC_SCALE + HALF_CELL;
+                    double doomY = (originBlockZ - z) * (double) DoomConstants.DOOM_TO_MC_SCALE + HALF_CELL;
+                    boolean expected = topology.containsPoint(sector, doomX, doomY);
+                    assertEquals(expected, mask.contains(x, z), "Sector " + sector + " cell (" + x + ", " + z + ")");
+                }
+            }
+            filled += mask.cellCount();
+        }
+        assertTrue(filled > 0, "E1M1 filled no cells");
+    }
+}
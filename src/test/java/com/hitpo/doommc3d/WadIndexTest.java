@@ -0,0 +1,86 @@
+package com.hitpo.doommc3d;
+
+import com.hitpo.doommc3d.wad.WadFile;
+import com.hitpo.doommc3d.wad.WadIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class WadIndexTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void duplicateNamesResolveToLastEntry() throws IOException {
+        Path wadPath = writeWad(tempDir.resolve("dup.wad"), "PWAD",
+            "PLAYPAL", new byte[] {1},
+            "DSPISTOL", new byte[] {2, 2},
+            "PLAYPAL", new byte[] {3, 3, 3});
+        WadFile wad = new WadFile(wadPath);
+        assertEquals(3, wad.findLump("playpal").getSize());
+        assertEquals(2, wad.getIndex().indexOf("PLAYPAL"));
+        assertNull(wad.findLump("D_E1M1"));
+    }
+
+    @Test
+    public void mapMarkersIndexTheirLumpBlock() throws IOException {
+        Path wadPath = writeWad(tempDir.resolve("maps.wad"), "IWAD",
+            "E1M1", new byte[0],
+            "THINGS", new byte[10],
+            "LINEDEFS", new byte[14],
+            "SIDEDEFS", new byte[30],
+            "VERTEXES", new byte[4],
+            "SECTORS", new byte[26],
+            "DSPISTOL", new byte[4],
+            "MAP07", new byte[0],
+            "THINGS", new byte[20]);
+        WadIndex index = new WadFile(wadPath).getIndex();
+        assertEquals(2, index.getMapNames().size());
+
+        WadIndex.MapLumpBlock e1m1 = index.getMap("e1m1");
+        assertNotNull(e1m1);
+        assertEquals(0, e1m1.getMarkerIndex());
+        assertEquals(26, e1m1.get(WadIndex.MapLump.SECTORS).getSize());
+        assertFalse(e1m1.has(WadIndex.MapLump.BLOCKMAP));
+
+        WadIndex.MapLumpBlock map07 = index.getMap("MAP07");
+        assertEquals(20, map07.get(WadIndex.MapLump.THINGS).getSize());
+        assertNull(index.getMap("E1M2"));
+    }
+
+    static Path writeWad(Path path, String identification, Object... namesAndData) throws IOException {
+        int lumpCount = namesAndData.length / 2;
+        int dataSize = 0;
+        for (int i = 1; i < namesAndData.length; i += 2) {
+            dataSize += ((byte[]) namesAndData[i]).length;
+        }
+        ByteBuffer buf = ByteBuffer.allocate(12 + dataSize + lumpCount * 16).order(ByteOrder.LITTLE_ENDIAN);
+        buf.put(identification.getBytes(StandardCharsets.US_ASCII));
+        buf.putInt(lumpCount);
+        buf.putInt(12 + dataSize);
+        int[] offsets = new int[lumpCount];
+        for (int i = 0; i < lumpCount; i++) {
+            offsets[i] = buf.position();
+            buf.put((byte[]) namesAndData[i * 2 + 1]);
+        }
+        for (int i = 0; i < lumpCount; i++) {
+            buf.putInt(offsets[i]);
+            buf.putInt(((byte[]) namesAndData[i * 2 + 1]).length);
+            buf.put(Arrays.copyOf(((String) namesAndData[i * 2]).getBytes(StandardCharsets.US_ASCII), 8));
+        }
+        Files.write(path, buf.array());
+        return path;
+    }
+}